@@ -0,0 +1,87 @@
+package isolation;
+
+import java.util.Random;
+
+//Positions shared by the JMH benchmarks. Build the bench folder with "mvn package" and run "java -jar target/benchmarks.jar",
+//naming a class or method to run only that, e.g. "java -jar target/benchmarks.jar Search -p threads=1,2,4 -rf json".
+final class Benchmarks
+{
+	static final int DIMENSION = 8;
+	static final int SEARCH_HASH_SIZE_MB = 4;
+
+	//Name, moves from the standard start (X moves first), perft depth
+	private static final String[][] POSITIONS = {
+		{"start", "", "4"},
+		{"opening", "F6 H4 E6 B4 G4 B1", "4"},
+		{"middlegame", "A3 H6 B4 H1 F8 H2 F3 H5 A8 F5 E4 G5 B7 F6 F7 B6 E8 E6 C6 D7", "5"},
+		{"endgame", "A2 E8 C2 D8 F5 H4 F3 E4 F4 E7 E3 C5 C1 C4 H1 A4 G1 B3 G3 A3 G4 B2 G7 D4 H7 D1 G6 E1 C6 F2 C7 D2", "6"},
+	};
+
+	private Benchmarks()
+	{
+	}//end Constructor
+
+	//Every benchmark position, in the order of POSITIONS
+	static Board[] positions()
+	{
+		Board[] boards = new Board[POSITIONS.length];
+		for(int i = 0; i < POSITIONS.length; i++)
+			boards[i] = position(POSITIONS[i][1]);
+		return boards;
+	}//end positions
+
+	//The named benchmark position
+	static Board namedPosition(String name)
+	{
+		return position(POSITIONS[indexOf(name)][1]);
+	}//end namedPosition
+
+	static int perftDepth(String name)
+	{
+		return Integer.parseInt(POSITIONS[indexOf(name)][2]);
+	}//end perftDepth
+
+	private static int indexOf(String name)
+	{
+		for(int i = 0; i < POSITIONS.length; i++)
+		{
+			if(POSITIONS[i][0].equals(name))
+				return i;
+		}//end for
+		throw new IllegalArgumentException("Unknown position " + name);
+	}//end indexOf
+
+	//Board reached by playing moves from the standard start, checking each one is legal
+	static Board position(String moves)
+	{
+		Board board = new Board(DIMENSION, 'X');
+		for(String name : moves.trim().split("\\s+"))
+		{
+			if(name.isEmpty())
+				continue;
+			char side = board.getSideToMove();
+			int square = board.parseSquare(name);
+			if(!board.isLegalMove(side, square))
+				throw new IllegalArgumentException(name + " is not a legal move for " + side);
+			board.makeMove(side, square);
+		}//end for
+		return board;
+	}//end position
+
+	//Board after plies random moves from the start that leave the side to move a move, the same for a given seed
+	static Board randomPosition(int dimension, int plies, long seed)
+	{
+		Random random = new Random(seed);
+		int[] moves = new int[dimension * dimension];
+		Board board = new Board(dimension, 'X');
+		for(int ply = 0; ply < plies; ply++)
+		{
+			char side = board.getSideToMove();
+			int count = board.generateMoves(side, moves);
+			if(count == 0)
+				break;
+			board.makeMove(side, moves[random.nextInt(count)]);
+		}//end for
+		return board;
+	}//end randomPosition
+}//end Benchmarks
@@ -0,0 +1,39 @@
+package isolation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Static evaluation from both sides of every benchmark position; each operation is one side of one position
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EvaluationBenchmark
+{
+	private static final int OPERATIONS = 8;//Two sides of each of the four positions
+
+	private final Board[] boards = Benchmarks.positions();
+	private final Adversarial engine = new Adversarial(0, 'X', 'O', 1);
+
+	@Benchmark
+	@OperationsPerInvocation(OPERATIONS)
+	public int evaluateBoard()
+	{
+		int total = 0;
+		for(Board board : this.boards)
+			total += this.engine.evaluateBoard('X', board) + this.engine.evaluateBoard('O', board);
+		return total;
+	}//end evaluateBoard
+}//end EvaluationBenchmark
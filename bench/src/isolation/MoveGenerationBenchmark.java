@@ -0,0 +1,51 @@
+package isolation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Move lists for both players of every benchmark position; each operation is one side of one position
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MoveGenerationBenchmark
+{
+	private static final int OPERATIONS = 8;//Two sides of each of the four positions
+
+	private final Board[] boards = Benchmarks.positions();
+	private final int[] moves = new int[Benchmarks.DIMENSION * Benchmarks.DIMENSION];
+
+	//As the search builds them
+	@Benchmark
+	@OperationsPerInvocation(OPERATIONS)
+	public int generateMoves()
+	{
+		int count = 0;
+		for(Board board : this.boards)
+			count += board.generateMoves('X', this.moves) + board.generateMoves('O', this.moves);
+		return count;
+	}//end generateMoves
+
+	//As the game screen builds them
+	@Benchmark
+	@OperationsPerInvocation(OPERATIONS)
+	public int findAvailableSpaces()
+	{
+		int count = 0;
+		for(Board board : this.boards)
+			count += board.findAvailableSpaces('X').size() + board.findAvailableSpaces('O').size();
+		return count;
+	}//end findAvailableSpaces
+}//end MoveGenerationBenchmark
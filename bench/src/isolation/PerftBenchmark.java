@@ -0,0 +1,62 @@
+package isolation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Leaf positions a fixed depth ahead of each benchmark position, making and undoing every move; each operation is one count
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PerftBenchmark
+{
+	@Param({"start", "opening", "middlegame", "endgame"})
+	public String position;
+
+	private Board board;
+	private int depth;
+	private int[][] moves;
+
+	@Setup
+	public void setUp()
+	{
+		this.board = Benchmarks.namedPosition(this.position);
+		this.depth = Benchmarks.perftDepth(this.position);
+		this.moves = new int[this.depth][Benchmarks.DIMENSION * Benchmarks.DIMENSION];
+	}//end setUp
+
+	@Benchmark
+	public long perft()
+	{
+		return perft(this.board.getSideToMove(), this.depth);
+	}//end perft
+
+	private long perft(char side, int depth)
+	{
+		if(depth == 0)
+			return 1;
+		int[] buffer = this.moves[depth - 1];
+		int count = this.board.generateMoves(side, buffer);
+		long leaves = 0;
+		for(int i = 0; i < count; i++)
+		{
+			this.board.makeMove(side, buffer[i]);
+			leaves += perft(side == 'X' ? 'O' : 'X', depth - 1);
+			this.board.undoMove();
+		}//end for
+		return leaves;
+	}//end perft
+}//end PerftBenchmark
@@ -0,0 +1,88 @@
+package isolation;
+
+import java.awt.Point;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Move generation and fixed depth search on each board size, from a position a few random moves in.
+//Search reports the same nodes counter as SearchBenchmark, so nodes per second can be compared across sizes.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ScalingBenchmark
+{
+	@Param({"8", "16", "32", "64"})
+	public int dimension;
+
+	@Param({"4"})
+	public int depth;
+
+	private Board board;
+	private int[] moves;
+
+	//Kept apart so only the search pays for clearing the table before each call
+	@State(Scope.Thread)
+	public static class Searcher
+	{
+		private Adversarial engine;
+
+		@Setup
+		public void setUp(ScalingBenchmark scaling)
+		{
+			char side = scaling.board.getSideToMove();
+			this.engine = new Adversarial(0, side, side == 'X' ? 'O' : 'X', Benchmarks.SEARCH_HASH_SIZE_MB);
+		}//end setUp
+
+		@Setup(Level.Invocation)
+		public void clearTable()
+		{
+			this.engine.newGame();
+		}//end clearTable
+
+		@TearDown
+		public void tearDown()
+		{
+			this.engine.shutdown();
+		}//end tearDown
+	}//end Searcher
+
+	@Setup
+	public void setUp()
+	{
+		this.board = Benchmarks.randomPosition(this.dimension, this.dimension / 2, 1);
+		this.moves = new int[this.dimension * this.dimension];
+	}//end setUp
+
+	//Each operation is one side's move list
+	@Benchmark
+	@OperationsPerInvocation(2)
+	public int generateMoves()
+	{
+		return this.board.generateMoves('X', this.moves) + this.board.generateMoves('O', this.moves);
+	}//end generateMoves
+
+	@Benchmark
+	public Point search(Searcher searcher, SearchBenchmark.Nodes counter)
+	{
+		Point move = searcher.engine.fixedDepthSearch(this.board, this.depth);
+		counter.nodes += searcher.engine.getNodeCount();
+		return move;
+	}//end search
+}//end ScalingBenchmark
@@ -0,0 +1,86 @@
+package isolation;
+
+import java.awt.Point;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Fixed depth search of each benchmark position from an empty hash table; each operation is one search.
+//The nodes counter gives nodes per second; pass e.g. "-p threads=1,2,4" to compare thread counts.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SearchBenchmark
+{
+	@Param({"start", "opening", "middlegame", "endgame"})
+	public String position;
+
+	@Param({"7"})
+	public int depth;
+
+	@Param({"1"})
+	public int threads;
+
+	private Board board;
+	private Adversarial engine;
+
+	//Nodes searched, reported by JMH per second like the searches themselves
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Nodes
+	{
+		public long nodes;
+
+		@Setup(Level.Iteration)
+		public void reset()
+		{
+			this.nodes = 0;
+		}//end reset
+	}//end Nodes
+
+	@Setup
+	public void setUp()
+	{
+		this.board = Benchmarks.namedPosition(this.position);
+		char side = this.board.getSideToMove();
+		this.engine = new Adversarial(0, side, side == 'X' ? 'O' : 'X', Benchmarks.SEARCH_HASH_SIZE_MB);
+		this.engine.setThreadCount(this.threads);
+	}//end setUp
+
+	//Searches take milliseconds, so clearing the table outside the measurement costs nothing in accuracy
+	@Setup(Level.Invocation)
+	public void clearTable()
+	{
+		this.engine.newGame();
+	}//end clearTable
+
+	@TearDown
+	public void tearDown()
+	{
+		this.engine.shutdown();
+	}//end tearDown
+
+	@Benchmark
+	public Point search(Nodes counter)
+	{
+		Point move = this.engine.fixedDepthSearch(this.board, this.depth);
+		counter.nodes += this.engine.getNodeCount();
+		return move;
+	}//end search
+}//end SearchBenchmark
@@ -0,0 +1,621 @@
+package isolation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+//Regression checks that need no test framework, run after changing the evaluation, Board, the game log or the book keys.
+//Each check compares the fast code with a slow version that is plainly right, or writes data and reads it back.
+//Usage: Checks [movegen] [position] [evaluate] [gamelog] [symmetry] [deadline] [futility]
+//With no checks named every check runs. Prints one line per check and exits with status 1 if any failed.
+public class Checks
+{
+	private static final String[] ALL = {"movegen", "position", "evaluate", "gamelog", "symmetry", "deadline", "futility"};
+	private static final long SEED = 0x150A7105L;//Fixed so a failure can be reproduced
+	private static final int[] DIMENSIONS = {3, 4, 5, 6, 7, 8, 11, 16, 64};
+	private static final int LOG_GAMES = 3000;
+	//Position strings Board.fromPositionString has to refuse
+	private static final String[] MALFORMED = {
+		"X7#/8/8/8/8/8/8/7O", "X7/8/8/8/8/8/8/7OX", "X8/8/8/8/8/8/8/7O", "X6/8/8/8/8/8/8/7O",//Rows too long or short
+		"X6X/8/8/8/8/8/8/7O", "X7/8/8/8/8/8/O7/7O", "X7/8/8/8/8/8/8/8", "X7/8/8/8/8/8/8/6?O",
+	};
+	//Not squares of an 8x8 board
+	private static final String[] MALFORMED_SQUARES = {"A+1", "A-1", "A0", "A9", "I1", "A", "1", "A 1", "A1 ", "A\u0661"};
+	private static final long MOVE_MILLIS = 50;
+	private static final long LATE_MILLIS = 25;//Allowed past the move time for unwinding and a slow clock
+	private static final int SEPARATED_POSITIONS = 100;
+	private static final String[] DEADLINE_ENGINES = {"engine=alphabeta", "engine=mcts", "engine=hybrid"};
+	//Separated positions whose exact solve once took well over a second
+	private static final String[] SLOW_SOLVES = {"##5#/6#1/6##/1###3#/#1##1#2/#####2#/2#5/1O##X#1#"};
+	//Moves from the standard start and a search depth at which the side to move proves a win
+	private static final String[][] PROVEN_WINS = {
+		{"A3 H6 B4 H1 F8 H2 F3 H5 A8 F5 E4 G5 B7 F6 F7 B6 E8 E6 C6 D7", "8"},
+	};
+	private static final int FUTILITY_RUNS = 5;//Helper threads make each run take its own path
+
+	private Random random;
+
+	public Checks()
+	{
+		this.random = new Random(SEED);
+	}//end Constructor
+
+	public static void main(String[] args)
+	{
+		List<String> names = Arrays.asList(args.length == 0 ? ALL : args);
+		boolean failed = false;
+		for(String name : names)
+		{
+			long start = System.nanoTime();
+			try {
+				String detail = new Checks().run(name);
+				System.out.printf("PASS %-9s %s (%.1f s)%n", name, detail, (System.nanoTime() - start) / 1e9);
+			}
+			catch(IOException | RuntimeException e) {
+				System.out.printf("FAIL %-9s %s%n", name, e);
+				failed = true;
+			}
+		}//end for
+		if(failed)
+			System.exit(1);
+	}//end main
+
+	private String run(String name) throws IOException
+	{
+		switch(name)
+		{
+			case "movegen": return moveGeneration();
+			case "position": return positionStrings();
+			case "evaluate": return evaluation();
+			case "gamelog": return gameLog();
+			case "symmetry": return symmetry();
+			case "deadline": return deadline();
+			case "futility": return futility();
+			default: throw new IllegalArgumentException("Unknown check " + name + ", expected one of " + Arrays.toString(ALL));
+		}//end switch
+	}//end run
+
+	static IllegalStateException fail(String message)
+	{
+		return new IllegalStateException(message);
+	}//end fail
+
+	//Moves from every position of random games against a walk over the character grid, as the original Board found them
+	private String moveGeneration()
+	{
+		long positions = 0;
+		for(int dimension : DIMENSIONS)
+		{
+			int[] moves = new int[4 * dimension];
+			for(Board board : randomPositions(dimension, gamesFor(dimension)))
+			{
+				for(char player : new char[] {'X', 'O'})
+				{
+					int count = board.generateMoves(player, moves);
+					int[] generated = Arrays.copyOf(moves, count);
+					int[] expected = referenceMoves(board, player);
+					Arrays.sort(generated);
+					if(!Arrays.equals(generated, expected))
+						throw fail(player + " moves on " + board.toPositionString() + ": "
+							+ Arrays.toString(generated) + ", expected " + Arrays.toString(expected));
+					if(board.countAvailableSpaces(player) != count)
+						throw fail("countAvailableSpaces on " + board.toPositionString());
+					for(int square = 0; square < dimension * dimension; square++)
+					{
+						if(board.isLegalMove(player, square) != Arrays.binarySearch(expected, square) >= 0)
+							throw fail("isLegalMove(" + player + ", " + square + ") on " + board.toPositionString());
+					}//end for
+				}//end for
+				Board parsed = Board.fromPositionString(board.toPositionString());
+				if(parsed.getHashKey('X') != board.getHashKey('X'))
+					throw fail("Hash key differs after a position string round trip");
+				positions++;
+			}//end for
+		}//end for
+		return positions + " positions";
+	}//end moveGeneration
+
+	//Malformed position strings and square names are refused rather than read as something else
+	private String positionStrings()
+	{
+		for(int dimension : new int[] {8, 30})
+		{
+			Board board = new Board(dimension, 'X');
+			for(int square = 0; square < dimension * dimension; square++)
+			{
+				if(board.parseSquare(board.formatSquare(square)) != square)
+					throw fail(board.formatSquare(square) + " is not read back as square " + square);
+			}//end for
+		}//end for
+		for(String square : MALFORMED_SQUARES)
+		{
+			if(new Board(8, 'X').parseSquare(square) != -1)
+				throw fail("Square " + square + " was accepted");
+		}//end for
+
+		for(String position : MALFORMED)
+		{
+			try {
+				Board.fromPositionString(position);
+			}
+			catch(IllegalArgumentException e) {
+				continue;
+			}
+			throw fail(position + " was accepted");
+		}//end for
+		return MALFORMED.length + " malformed positions, " + MALFORMED_SQUARES.length + " malformed squares";
+	}//end positionStrings
+
+	//evaluateBoard with the original weights against the original grid-based evaluation
+	private String evaluation()
+	{
+		Adversarial engine = new Adversarial(0, 'X', 'O', 1);
+		int[] features = new int[EvaluationWeights.FEATURE_COUNT];
+		int[] weights = EvaluationWeights.ORIGINAL.toArray();
+		long positions = 0;
+		for(int dimension : DIMENSIONS)
+		{
+			for(Board board : randomPositions(dimension, gamesFor(dimension)))
+			{
+				for(char caller : new char[] {'X', 'O'})
+				{
+					int value = engine.evaluateBoard(caller, board);
+					int expected = referenceEvaluation(board, caller);
+					if(value != expected)
+						throw fail("evaluateBoard(" + caller + ") on " + board.toPositionString() + " is " + value
+							+ ", expected " + expected);
+					Adversarial.evaluationFeatures(caller, board, features);
+					int sum = 0;
+					for(int i = 0; i < features.length; i++)
+						sum += weights[i] * features[i];
+					if(sum != value)
+						throw fail("evaluationFeatures does not add up to evaluateBoard on " + board.toPositionString());
+				}//end for
+				positions++;
+			}//end for
+		}//end for
+		return positions + " positions";
+	}//end evaluation
+
+	//Random games written to a game log and read back, then with a corrupt record after them,
+	//then the log cut short inside its last record
+	private String gameLog() throws IOException
+	{
+		Path file = Files.createTempFile("isolation-check", ".games");
+		try {
+			List<int[]> games = new ArrayList<int[]>();
+			List<String> configs = new ArrayList<String>();
+			try(GameLogWriter writer = GameLogWriter.open(file)) {
+				for(int i = 0; i < LOG_GAMES; i++)
+				{
+					//Boards past 16x16 store two bytes a move
+					int dimension = i % 10 == 0 ? 20 : 3 + this.random.nextInt(6);
+					Board board = randomGame(dimension);
+					int[] moves = new int[dimension * dimension];
+					int count = board.getMoveHistory(moves);
+					int[] game = new int[5 + count];
+					game[0] = dimension;
+					game[1] = count % 2 == 0 ? 'O' : 'X';//The side to move has no moves left
+					game[2] = this.random.nextInt(2);
+					game[3] = this.random.nextInt(100000);
+					game[4] = count;
+					System.arraycopy(moves, 0, game, 5, count);
+					String config = i % 7 == 0 ? "" : "name=game" + i + ",time=" + game[3];
+					writer.append(dimension, (char)game[1], game[2] == 1, game[3], config, moves, count);
+					games.add(game);
+					configs.add(config);
+				}//end for
+			}//end try
+			if(readGames(file, games, configs) != LOG_GAMES)
+				throw fail("Not every game was read back");
+
+			//A record claiming more moves than it holds
+			ByteBuffer corrupt = ByteBuffer.allocate(GameLogWriter.RECORD_HEADER_BYTES);
+			corrupt.putInt(GameLogWriter.RECORD_HEADER_BYTES - 4).put((byte)8).put((byte)0).putShort((short)500).putInt(0).putShort((short)0).flip();
+			try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+				while(corrupt.hasRemaining())
+					channel.write(corrupt);
+			}
+			if(readGames(file, games, configs) != LOG_GAMES)
+				throw fail("A corrupt last record was not ignored");
+
+			try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.truncate(channel.size() - GameLogWriter.RECORD_HEADER_BYTES - 1);
+			}
+			if(readGames(file, games, configs) != LOG_GAMES - 1)
+				throw fail("A partial last record was not ignored");
+			return LOG_GAMES + " games";
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}//end gameLog
+
+	private static int readGames(Path file, List<int[]> games, List<String> configs) throws IOException
+	{
+		if(!GameLogReader.isGameLog(file))
+			throw fail(file + " is not recognised as a game log");
+		int read = 0;
+		try(GameLogReader reader = GameLogReader.open(file)) {
+			while(reader.next())
+			{
+				int[] game = games.get(read);
+				if(reader.getDimension() != game[0] || reader.getWinner() != game[1] || reader.isForfeit() != (game[2] == 1)
+						|| reader.getMoveTimeMillis() != game[3] || reader.getMoveCount() != game[4])
+					throw fail("Header of game " + read);
+				if(!reader.getConfig().equals(configs.get(read)))
+					throw fail("Configuration of game " + read);
+				for(int i = 0; i < game[4]; i++)
+				{
+					if(reader.getMove(i) != game[5 + i])
+						throw fail("Move " + i + " of game " + read);
+				}//end for
+				read++;
+			}//end while
+		}
+		return read;
+	}//end readGames
+
+	//Symmetric images of random positions: their keys, canonical keys, moves and book lookups
+	private String symmetry() throws IOException
+	{
+		for(int transform = 0; transform < Symmetry.TRANSFORMS; transform++)
+		{
+			for(int square = 0; square < 64; square++)
+			{
+				if(Symmetry.transform(1L << square, transform) != 1L << Symmetry.transformSquare(square, transform, 8))
+					throw fail("Mask and square transforms disagree for transform " + transform);
+			}//end for
+			for(int dimension : DIMENSIONS)
+			{
+				for(int square = 0; square < dimension * dimension; square++)
+				{
+					int image = Symmetry.transformSquare(square, transform, dimension);
+					if(Symmetry.transformSquare(image, Symmetry.inverse(transform), dimension) != square)
+						throw fail("Transform " + Symmetry.inverse(transform) + " does not undo " + transform);
+				}//end for
+			}//end for
+		}//end for
+
+		long images = 0;
+		List<Board> bookPositions = new ArrayList<Board>();
+		HashSet<Long> bookKeys = new HashSet<Long>();
+		for(int dimension : new int[] {5, 8, 12})
+		{
+			int[] moves = new int[4 * dimension];
+			int[] imageMoves = new int[4 * dimension];
+			for(Board board : randomPositions(dimension, 100))
+			{
+				char side = board.getSideToMove();
+				long canonicalKey = board.getSymmetricKey(side, board.getCanonicalTransform(side));
+				if(board.getSymmetricKey(side, 0) != board.getHashKey(side))
+					throw fail("Transform 0 is not the plain key");
+				int count = board.generateMoves(side, moves);
+				for(int transform = 0; transform < Board.TRANSFORMS; transform++)
+				{
+					Board image = image(board, transform);
+					char imageSide = imageSide(side, transform);
+					if(image.getHashKey(imageSide) != board.getSymmetricKey(side, transform))
+						throw fail("Key of image " + transform + " of " + board.toPositionString());
+					if(image.getSymmetricKey(imageSide, image.getCanonicalTransform(imageSide)) != canonicalKey)
+						throw fail("Canonical key of image " + transform + " of " + board.toPositionString());
+					if(image.generateMoves(imageSide, imageMoves) != count)
+						throw fail("Move count of image " + transform);
+					for(int i = 0; i < count; i++)
+					{
+						int imageMove = board.transformSquare(moves[i], transform);
+						if(!image.isLegalMove(imageSide, imageMove) || board.untransformSquare(imageMove, transform) != moves[i])
+							throw fail("Move " + moves[i] + " under transform " + transform + " of " + board.toPositionString());
+					}//end for
+					images++;
+				}//end for
+				if(dimension == 8 && count > 0 && bookKeys.add(canonicalKey))
+					bookPositions.add(board);//A book has one entry for all images of a position
+			}//end for
+		}//end for
+		return images + " images, " + bookLookups(bookPositions) + " book lookups";
+	}//end symmetry
+
+	//A book of random moves for positions, probed through every image of every position
+	private int bookLookups(List<Board> positions) throws IOException
+	{
+		long[] keys = new long[positions.size()];
+		int[] moves = new int[positions.size()];
+		int[] bookMoves = new int[positions.size()];
+		Integer[] order = new Integer[positions.size()];
+		int[] legal = new int[32];
+		for(int i = 0; i < positions.size(); i++)
+		{
+			Board board = positions.get(i);
+			char side = board.getSideToMove();
+			int transform = board.getCanonicalTransform(side);
+			keys[i] = board.getSymmetricKey(side, transform);
+			bookMoves[i] = legal[this.random.nextInt(board.generateMoves(side, legal))];
+			moves[i] = board.transformSquare(bookMoves[i], transform);
+			order[i] = i;
+		}//end for
+		Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+		long[] sortedKeys = new long[order.length];
+		int[] sortedMoves = new int[order.length];
+		for(int i = 0; i < order.length; i++)
+		{
+			sortedKeys[i] = keys[order[i]];
+			sortedMoves[i] = moves[order[i]];
+		}//end for
+
+		Path file = Files.createTempFile("isolation-check", ".book");
+		int lookups = 0;
+		try {
+			OpeningBook.write(file, 8, sortedKeys, sortedMoves, new int[order.length], order.length);
+			OpeningBook book = OpeningBook.open(file);
+			for(int i = 0; i < positions.size(); i++)
+			{
+				Board board = positions.get(i);
+				char side = board.getSideToMove();
+				for(int transform = 0; transform < Board.TRANSFORMS; transform++)
+				{
+					Board image = image(board, transform);
+					char imageSide = imageSide(side, transform);
+					int move = book.probe(image, imageSide);
+					if(move == TranspositionTable.NO_MOVE || !image.isLegalMove(imageSide, move))
+						throw fail("No legal book move for image " + transform + " of " + board.toPositionString());
+					//A position that is its own image may be answered with a symmetric move, which reaches the same position
+					Board played = new Board(board);
+					played.makeMove(side, bookMoves[i]);
+					image.makeMove(imageSide, move);
+					char next = side == 'X' ? 'O' : 'X';
+					char imageNext = imageSide == 'X' ? 'O' : 'X';
+					if(image.getSymmetricKey(imageNext, image.getCanonicalTransform(imageNext))
+							!= played.getSymmetricKey(next, played.getCanonicalTransform(next)))
+						throw fail("Book move for image " + transform + " of " + board.toPositionString() + " is not the stored move");
+					lookups++;
+				}//end for
+			}//end for
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+		return lookups;
+	}//end bookLookups
+
+	//Searches of separated positions, whose exact solve has to stop at the move's deadline like any search
+	private String deadline()
+	{
+		List<Board> positions = new ArrayList<Board>();
+		for(String position : SLOW_SOLVES)
+			positions.add(Board.fromPositionString(position));
+		while(positions.size() < SLOW_SOLVES.length + SEPARATED_POSITIONS)
+		{
+			Board board = randomSeparatedPosition();
+			if(board != null)
+				positions.add(board);
+		}//end while
+
+		long slowest = 0;
+		for(String spec : DEADLINE_ENGINES)
+		{
+			SearchEngine[] engines = {EngineOptions.parse(spec).createEngine('X'), EngineOptions.parse(spec).createEngine('O')};
+			try {
+				for(SearchEngine engine : engines)
+				{
+					engine.setMoveTimeMillis(MOVE_MILLIS);
+					engine.search(positions.get(0), 0);//Not timed, the first search also loads and compiles the code
+				}//end for
+				for(Board board : positions)
+				{
+					SearchEngine engine = engines[board.getSideToMove() == 'X' ? 0 : 1];
+					engine.newGame();
+					long start = System.nanoTime();
+					int move = engine.search(board, board.getMoveCount()).getSquare();
+					long millis = (System.nanoTime() - start) / 1000000;
+					if(millis > MOVE_MILLIS + LATE_MILLIS)
+						throw fail(spec + " took " + millis + " ms of " + MOVE_MILLIS + " on " + board.toPositionString());
+					if(!board.isLegalMove(board.getSideToMove(), move))
+						throw fail(spec + " played no legal move on " + board.toPositionString());
+					slowest = Math.max(slowest, millis);
+				}//end for
+			}
+			finally {
+				for(SearchEngine engine : engines)
+					engine.shutdown();
+			}
+		}//end for
+		return positions.size() + " positions, slowest " + slowest + " ms of " + MOVE_MILLIS;
+	}//end deadline
+
+	//Futility pruning must not hide a proven win, with one thread or with helpers sharing the hash table
+	private String futility()
+	{
+		int searches = 0;
+		for(String[] win : PROVEN_WINS)
+		{
+			Board board = new Board(8, 'X');
+			for(String name : win[0].split(" "))
+				board.makeMove(board.getSideToMove(), board.parseSquare(name));
+			int depth = Integer.parseInt(win[1]);
+			for(String spec : new String[] {"futility=false", "futility=true", "futility=true,threads=2"})
+			{
+				for(int run = 0; run < (spec.contains("threads") ? FUTILITY_RUNS : 1); run++)
+				{
+					SearchEngine engine = EngineOptions.parse(spec).createEngine(board.getSideToMove());
+					try {
+						int score = engine.searchFixed(board, depth).getScore();
+						if(score < Adversarial.WIN_SCORE)
+							throw fail(spec + " scores " + score + " at depth " + depth + " after " + win[0] + ", a proven win");
+					}
+					finally {
+						engine.shutdown();
+					}
+					searches++;
+				}//end for
+			}//end for
+		}//end for
+		return searches + " searches";
+	}//end futility
+
+	//A position of a random 8x8 game in which the players have just been walled off, or null if the game ended first
+	private Board randomSeparatedPosition()
+	{
+		Board board = new Board(8, 'X');
+		int[] moves = new int[32];
+		char side = 'X';
+		int count;
+		while((count = board.generateMoves(side, moves)) > 0)
+		{
+			if(board.playersSeparated())
+				return board;
+			board.makeMove(side, moves[this.random.nextInt(count)]);
+			side = side == 'X' ? 'O' : 'X';
+		}//end while
+		return null;
+	}//end randomSeparatedPosition
+
+	//The image of board under transform, built square by square from its text form
+	static Board image(Board board, int transform)
+	{
+		int dimension = board.getBoardDimension();
+		char[][] layout = board.getBoardLayout();
+		char[][] image = new char[dimension][dimension];
+		for(int square = 0; square < dimension * dimension; square++)
+		{
+			char cell = layout[square / dimension][square % dimension];
+			if((transform & Board.SWAP_COLOURS) != 0 && (cell == 'X' || cell == 'O'))
+				cell = cell == 'X' ? 'O' : 'X';
+			int target = board.transformSquare(square, transform);
+			image[target / dimension][target % dimension] = cell;
+		}//end for
+		StringBuilder position = new StringBuilder();
+		for(int row = 0; row < dimension; row++)
+		{
+			if(row > 0)
+				position.append('/');
+			int empty = 0;
+			for(int col = 0; col < dimension; col++)
+			{
+				if(image[row][col] == '-')
+				{
+					empty++;
+					continue;
+				}//end if
+				if(empty > 0)
+					position.append(empty);
+				empty = 0;
+				position.append(image[row][col]);
+			}//end for
+			if(empty > 0)
+				position.append(empty);
+		}//end for
+		return Board.fromPositionString(position.toString());
+	}//end image
+
+	private static char imageSide(char side, int transform)
+	{
+		if((transform & Board.SWAP_COLOURS) == 0)
+			return side;
+		return side == 'X' ? 'O' : 'X';
+	}//end imageSide
+
+	private static int gamesFor(int dimension)
+	{
+		return dimension <= 8 ? 3000 : dimension <= 16 ? 100 : 1;
+	}//end gamesFor
+
+	//Every position of games played with random moves from the standard start
+	List<Board> randomPositions(int dimension, int games)
+	{
+		List<Board> positions = new ArrayList<Board>();
+		int[] moves = new int[4 * dimension];
+		for(int game = 0; game < games; game++)
+		{
+			Board board = new Board(dimension, 'X');
+			positions.add(new Board(board));
+			char side = 'X';
+			int count;
+			while((count = board.generateMoves(side, moves)) > 0)
+			{
+				board.makeMove(side, moves[this.random.nextInt(count)]);
+				side = side == 'X' ? 'O' : 'X';
+				positions.add(new Board(board));
+			}//end while
+		}//end for
+		return positions;
+	}//end randomPositions
+
+	private Board randomGame(int dimension)
+	{
+		Board board = new Board(dimension, 'X');
+		int[] moves = new int[4 * dimension];
+		char side = 'X';
+		int count;
+		while((count = board.generateMoves(side, moves)) > 0)
+		{
+			board.makeMove(side, moves[this.random.nextInt(count)]);
+			side = side == 'X' ? 'O' : 'X';
+		}//end while
+		return board;
+	}//end randomGame
+
+	//Queen moves found by walking the character grid outwards until a square is not '-'
+	static int[] referenceMoves(Board board, char player)
+	{
+		int dimension = board.getBoardDimension();
+		char[][] layout = board.getBoardLayout();
+		int square = board.getSquare(player);
+		int[] moves = new int[4 * dimension];
+		int count = 0;
+		for(int rowStep = -1; rowStep <= 1; rowStep++)
+		{
+			for(int colStep = -1; colStep <= 1; colStep++)
+			{
+				if(rowStep == 0 && colStep == 0)
+					continue;
+				int row = square / dimension + rowStep, col = square % dimension + colStep;
+				while(row >= 0 && row < dimension && col >= 0 && col < dimension && layout[row][col] == '-')
+				{
+					moves[count++] = row * dimension + col;
+					row += rowStep;
+					col += colStep;
+				}//end while
+			}//end inner for
+		}//end outer for
+		moves = Arrays.copyOf(moves, count);
+		Arrays.sort(moves);
+		return moves;
+	}//end referenceMoves
+
+	//The evaluation as the original grid-based Adversarial.evaluateBoard computed it
+	static int referenceEvaluation(Board board, char caller)
+	{
+		char opponent = caller == 'X' ? 'O' : 'X';
+		int dimension = board.getBoardDimension();
+		char[][] layout = board.getBoardLayout();
+		int playerRow = board.getSquare(caller) / dimension, playerCol = board.getSquare(caller) % dimension;
+		int opponentRow = board.getSquare(opponent) / dimension, opponentCol = board.getSquare(opponent) % dimension;
+		int value = 3 * referenceMoves(board, caller).length - referenceMoves(board, opponent).length;
+		if(playerRow == 0 || playerRow == dimension - 1)
+			value -= 10;
+		if(playerCol == 0 || playerCol == dimension - 1)
+			value -= 10;
+		for(int i = -1; i <= 1; i++)
+		{
+			for(int j = -1; j < 1; j++)
+			{
+				if(playerRow + i >= 0 && playerRow + i < dimension && playerCol + j >= 0 && playerCol + j < dimension
+						&& layout[playerRow + i][playerCol + j] != '-')
+					value -= 3;
+				if(opponentRow + i >= 0 && opponentRow + i < dimension && opponentCol + j >= 0 && opponentCol + j < dimension
+						&& layout[opponentRow + i][opponentCol + j] != '-')
+					value += 3;
+			}//end inner for
+		}//end outer for
+		return value;
+	}//end referenceEvaluation
+}//end Checks
@@ -1,183 +1,1071 @@
 package isolation;
 
 import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 //MinMax algorithm with Alpha-Beta Pruning
-public class Adversarial 
+public class Adversarial implements SearchEngine
 {
-	private long moveTimeLimit;
+	private long moveTimeLimit;//Milliseconds
 	private char computer;
 	private char player;
-	private long startTime;
+	private TimeManager timeManager;//Shared with the helpers so one stop ends every thread
+	private Thread ponderThread;//Searches the opponent's position while waiting for its move
+	private volatile int ponderDepth;
+	private boolean pondered;//The table already holds this turn's pondering results
+	private OpeningBook openingBook;
+	private RegionTablebase tablebase;//Shared by every thread, probed before the endgame solver
 	private int bestValue;
+	private long nodes;//Positions visited by the current search
+	private long[] counters;//Indexed by the SearchStats counter constants, for this thread only
+	private SearchStats lastStats;
+	private TranspositionTable transpositionTable;//Kept for the whole game so later turns reuse results
+	private EvaluationWeights weights;
+	private boolean lateMoveReductions;//Late moves are searched a ply shallower first
+	private boolean futilityPruning;//Near the horizon, moves that cannot lift a hopeless position are skipped
+	
+	//Parallel search: helpers share the transposition table and split the root moves with this search
+	private Adversarial[] helpers;
+	private ExecutorService helperPool;
+	
+	//Move ordering state, indexed by ply (distance from the root)
+	private int[][] moveLists;
+	private int[][] moveScores;
+	private int[][] killerMoves;//Two moves per ply that recently caused a cutoff
+	private int[][] history;//history[side][square], side 0 is the computer and 1 the player
+	private int[][] pvTable;//Triangular principal variation table
+	private int[] pvLength;
+	private int[] previousPv;//Principal variation of the last completed iteration
+	private int previousPvLength;
+	private boolean followPv;
+	private RootSplit rootSplit;//Reused by every iteration, sized with the buffers above
+	private Board[] helperBoards;//One copy of the search's board per helper, made once per search
+	
+	private EndgameSolver endgameSolver;//Each thread has its own, the memo is not shared
+	private int solverFailedSize;//Regions this big ran out of solver nodes this turn, so they are not retried
+	
+	public static final int DEFAULT_HASH_SIZE_MB = 16;
+	public static final int WIN_SCORE = 1000000;//Proven results, far outside any evaluateBoard value
+	private static final int UNSOLVED = Integer.MIN_VALUE;
+	private static final int INFINITY = Integer.MAX_VALUE;//-INFINITY is still an int, unlike Integer.MIN_VALUE
+	private static final int ASPIRATION_WINDOW = 16;//Half width of the first window around the last iteration's score
+	private static final int ASPIRATION_LIMIT = 512;//Past this half width the failing side is opened all the way
+	private static final long SOLVER_NODE_LIMIT = 100000;//Per position inside the tree
+	private static final long ROOT_SOLVER_NODE_LIMIT = 20000000;//The move's hard deadline also stops it
+	private static final int PV_SCORE = 1 << 30;
+	private static final int HASH_SCORE = (1 << 30) - 1;
+	private static final int KILLER_SCORE = 1 << 29;//Above any history score
+	private static final int MAX_PLY = 128;//Deepest line searched, only large boards have longer games
+	private static final int LMR_FULL_MOVES = 6;//Moves searched at full depth before reductions start
+	private static final int LMR_MIN_DEPTH = 6;
+	//Two plies, so a reduced search still ends with the same side to move. The evaluation scores the two sides
+	//so differently that one ply reductions failed high and were searched again about half the time.
+	private static final int LMR_REDUCTION = 2;
+	private static final int FUTILITY_DEPTH = 2;//Deepest remaining depth futility pruning is tried at
+	private static final int FUTILITY_MOVES = 4;//Margin per ply, in moves' worth of mobility
+	
+	//Evaluation tables, [dimension][square]. The window is the squares evaluateBoard has always counted as
+	//blocked neighbours: the rows above and below and the column to the left, the square itself included.
+	private static final long[][] BLOCK_WINDOWS = new long[Board.MAX_COMPACT_DIMENSION + 1][];
+	private static final int[][] EDGE_COUNTS = new int[Board.MAX_COMPACT_DIMENSION + 1][];
+	
+	static
+	{
+		for(int dimension = 2; dimension <= Board.MAX_COMPACT_DIMENSION; dimension++)
+		{
+			BLOCK_WINDOWS[dimension] = new long[dimension * dimension];
+			EDGE_COUNTS[dimension] = new int[dimension * dimension];
+			for(int square = 0; square < dimension * dimension; square++)
+			{
+				int row = square / dimension, col = square % dimension;
+				for(int i = -1; i <= 1; i++)
+				{
+					for(int j = -1; j < 1; j++)
+					{
+						if(row + i >= 0 && row + i < dimension && col + j >= 0 && col + j < dimension)
+							BLOCK_WINDOWS[dimension][square] |= 1L << ((row + i) * dimension + col + j);
+					}//end inner for
+				}//end outer for
+				EDGE_COUNTS[dimension][square] = edgeCount(dimension, square);
+			}//end for
+		}//end for
+	}//end static
 	
 	public Adversarial()
 	{
-		this.moveTimeLimit = 20;//Seconds
-		this.computer = 'X';
-		this.player = 'O';
+		this(20, 'X', 'O');
 	}//end Default Constructor
 	
 	public Adversarial(long mTL, char computerSymbol, char playerSymbol)
 	{
-		this.moveTimeLimit = mTL;
+		this(mTL, computerSymbol, playerSymbol, DEFAULT_HASH_SIZE_MB);
+	}//end Constructor
+	
+	//mTL is the time allowed for a move in seconds
+	public Adversarial(long mTL, char computerSymbol, char playerSymbol, int hashSizeMB)
+	{
+		this.moveTimeLimit = mTL * 1000;
+		this.timeManager = new TimeManager();
 		this.computer = computerSymbol;
 		this.player = playerSymbol;
+		this.transpositionTable = new TranspositionTable(hashSizeMB);
+		this.weights = EvaluationWeights.ORIGINAL;
+		this.lateMoveReductions = false;
+		this.futilityPruning = true;
+		this.counters = new long[SearchStats.COUNTER_COUNT];
+		this.endgameSolver = new EndgameSolver();
 	}//end Constructor
 	
+	//Helper search that shares the main search's settings and transposition table
+	private Adversarial(Adversarial main)
+	{
+		this.moveTimeLimit = main.moveTimeLimit;
+		this.timeManager = main.timeManager;
+		this.computer = main.computer;
+		this.player = main.player;
+		this.transpositionTable = main.transpositionTable;
+		this.weights = main.weights;
+		this.lateMoveReductions = main.lateMoveReductions;
+		this.futilityPruning = main.futilityPruning;
+		this.tablebase = main.tablebase;
+		this.endgameSolver = new EndgameSolver();
+		this.counters = new long[SearchStats.COUNTER_COUNT];
+	}//end Helper Constructor
+	
+	//Allows budgets below one second
+	public void setMoveTimeMillis(long millis)
+	{
+		this.moveTimeLimit = millis;
+	}//end setMoveTimeMillis
+	
+	public long getMoveTimeMillis()
+	{
+		return this.moveTimeLimit;
+	}//end getMoveTimeMillis
+	
+	//Number of threads that search each move, 1 keeps the search on the calling thread
+	public void setThreadCount(int threads)
+	{
+		shutdown();
+		if(threads > 1)
+		{
+			this.helpers = new Adversarial[threads - 1];
+			for(int i = 0; i < this.helpers.length; i++)
+				this.helpers[i] = new Adversarial(this);
+			this.helperPool = Executors.newFixedThreadPool(this.helpers.length, runnable -> {
+				Thread thread = new Thread(runnable, "isolation-search-helper");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}//end if
+	}//end setThreadCount
+	
+	public int getThreadCount()
+	{
+		return this.helpers == null ? 1 : this.helpers.length + 1;
+	}//end getThreadCount
+	
+	//Stops the helper threads, the search carries on single threaded
+	public void shutdown()
+	{
+		if(this.helperPool != null)
+			this.helperPool.shutdownNow();
+		this.helperPool = null;
+		this.helpers = null;
+	}//end shutdown
+	
 	public Point iterativeDeepening(Board layout, int turnCount)
 	{
-		//Converts current time to seconds to match moveTimeLimit
-		this.startTime = System.nanoTime() / (long)1e9;
-		Point move = new Point(-1,-1);
+		return search(layout, turnCount).getMove();
+	}//end iterativeDeepening
+	
+	//Moves are square numbers from here down; Points are only made by SearchStats.getMove for the game screen
+	
+	//Chooses a move within the move time and reports how the search went
+	public SearchStats search(Board layout, int turnCount)
+	{
+		SearchMoveEvent event = new SearchMoveEvent();
+		event.begin();
+		SearchStats stats = new SearchStats();
+		Board board = prepareSearch(layout);
+		this.timeManager.start(this.moveTimeLimit, layout);
 		int depth = 3;
 		
+		//Any legal move beats none if the first iteration cannot finish
+		int count = board.generateMoves(this.computer, this.moveLists[0]);
+		if(count == 0)
+			return finishSearch(stats, null, board, TranspositionTable.NO_MOVE, SearchStats.SEARCH);//Stuck, nothing to search or record
+		int move = this.moveLists[0][0];
+		int maxDepth = maxDepth(board, turnCount, 6);
+		
+		//Book positions were searched deeper offline than any move time allows
+		if(this.openingBook != null && this.openingBook.getDimension() == board.getBoardDimension())
+		{
+			int bookMove = this.openingBook.probe(board, this.computer);
+			if(bookMove != TranspositionTable.NO_MOVE && board.isLegalMove(this.computer, bookMove))
+				return finishSearch(stats, event, board, bookMove, SearchStats.BOOK);
+		}//end if
+		
+		//Walled off players: the longest path in the computer's own region is the best play, no search needed
+		//It is enough to find a path one move longer than the player's longest
+		if(board.isCompact() && board.playersSeparated())
+		{
+			int playerMoves = this.endgameSolver.longestPath(board, this.player, ROOT_SOLVER_NODE_LIMIT, this.timeManager);
+			int solved = playerMoves == EndgameSolver.UNKNOWN ? TranspositionTable.NO_MOVE
+					: this.endgameSolver.bestMove(board, this.computer, ROOT_SOLVER_NODE_LIMIT, playerMoves + 1, this.timeManager);
+			if(solved != TranspositionTable.NO_MOVE)
+				return finishSearch(stats, event, board, solved, SearchStats.ENDGAME);
+		}//end if
+		long lastIteration = 0;
+		double branchingFactor = 4.0;//Typical cost ratio between consecutive depths
+		
 		try {
-			while(timeRemaining())
-			{
-				move = alphaBeta(layout, depth);
-				if(depth < 6)
-					depth++;
-				else if(turnCount > 30)
-					depth++;
-			}//end while
+			do
+			{
+				move = searchIteration(board, depth, stats);
+				long iterationTime = stats.getIterationNanos(stats.getIterations() - 1);
+				if(lastIteration > 0)
+					branchingFactor = Math.max(1.5, Math.min(8.0, (double)iterationTime / lastIteration));
+				lastIteration = iterationTime;
+				depth++;
+			}
+			while(depth <= maxDepth && this.timeManager.canStartIteration(lastIteration, branchingFactor));
 		}
 		catch(NoTimeRemainingException e) {}		
+		return finishSearch(stats, event, board, move, SearchStats.SEARCH);
+	}//end search
+	
+	public Point fixedDepthSearch(Board layout, int depth)
+	{
+		return searchToDepth(layout, depth).getMove();
+	}//end fixedDepthSearch
+	
+	//The limit is a depth
+	public SearchStats searchFixed(Board layout, int limit)
+	{
+		return searchToDepth(layout, limit);
+	}//end searchFixed
+	
+	//Searches every depth up to depth with no time limit, for offline work where the depth matters and the clock does not
+	public SearchStats searchToDepth(Board layout, int depth)
+	{
+		SearchMoveEvent event = new SearchMoveEvent();
+		event.begin();
+		SearchStats stats = new SearchStats();
+		Board board = prepareSearch(layout);
+		this.timeManager.startInfinite();
+		int move = TranspositionTable.NO_MOVE;
+		if(board.countAvailableSpaces(this.computer) == 0)
+			return finishSearch(stats, null, board, move, SearchStats.SEARCH);
+		depth = Math.min(depth, this.moveLists.length - 1);
+		try {
+			for(int d = 1; d <= depth; d++)
+				move = searchIteration(board, d, stats);
+		}
+		catch(NoTimeRemainingException e) {}//Only happens if stop() is called
+		return finishSearch(stats, event, board, move, SearchStats.SEARCH);
+	}//end searchToDepth
+	
+	//One iteration of the deepening loop, timed into stats and recorded for Flight Recorder
+	private int searchIteration(Board board, int depth, SearchStats stats) throws NoTimeRemainingException
+	{
+		SearchIterationEvent event = new SearchIterationEvent();
+		event.begin();
+		long nodesBefore = getNodeCount();
+		long start = System.nanoTime();
+		int move = aspirationSearch(board, depth, stats.getIterations() > 0);
+		stats.recordIteration(depth, getNodeCount() - nodesBefore, System.nanoTime() - start);
+		event.end();
+		if(event.shouldCommit())
+		{
+			event.depth = depth;
+			event.nodes = stats.getIterationNodes(stats.getIterations() - 1);
+			event.score = this.bestValue;
+			event.bestMove = board.formatSquare(move);
+			event.commit();
+		}//end if
 		return move;
-	}//end IterativeDeepening
-	
-	//Terminates Iterative Deepening if Move Time Limit is exceeded
-	private boolean timeRemaining()
-	{ 
-		//Converts current time to seconds to match moveTimeLimit
-		long currentTime = System.nanoTime() / (long)1e9;
-		if(currentTime - this.startTime < this.moveTimeLimit)
-			return true;		
-		return false;
-	}//end timeRemaining
-	
-	//Pass in a depth search limit and the starting board layout of the turn
-	private Point alphaBeta(Board layout, int depthLimit) throws NoTimeRemainingException
-	{
-		this.bestValue = Integer.MIN_VALUE;
-		int alpha = Integer.MIN_VALUE;
-		int beta = Integer.MAX_VALUE;
-		Point bestMove = new Point(-1,-1);
-		
-		layout.setAvailableSpaces(layout.findAvailableSpaces(this.computer));
-		for(int i = 0; i < layout.getAvailableSpaces().size(); i++)
-		{
-			Point move = layout.getAvailableSpaces().get(i);//gets the next move
-			Board successor = new Board(layout, move, this.computer);//moves the computer to that point	
-			alpha = Math.max(alpha, minValue(successor, alpha, beta, depthLimit-1));	
-			
-			if(alpha > this.bestValue)
-			{
-				this.bestValue = alpha;
-				bestMove = move;
+	}//end searchIteration
+	
+	//Fills in the totals for the move being returned and records it for Flight Recorder, unless event is null
+	private SearchStats finishSearch(SearchStats stats, SearchMoveEvent event, Board board, int move, String source)
+	{
+		long[] counters = this.counters.clone();
+		if(this.helpers != null)
+		{
+			for(Adversarial helper : this.helpers)
+			{
+				for(int i = 0; i < counters.length; i++)
+					counters[i] += helper.counters[i];
+			}//end for
+		}//end if
+		int score = SearchStats.SEARCH.equals(source) ? this.bestValue : 0;
+		stats.finish(move, board.getBoardDimension(), score, source, getNodeCount(), this.timeManager.elapsedNanos(), counters);
+		this.lastStats = stats;
+		if(event == null)
+			return stats;
+		event.end();
+		if(event.shouldCommit())
+		{
+			event.move = move < 0 ? "none" : board.formatSquare(move);
+			event.source = source;
+			event.depth = stats.getDepth();
+			event.score = score;
+			event.nodes = stats.getNodes();
+			event.nodesPerSecond = stats.getNodesPerSecond();
+			event.branchingFactor = stats.getEffectiveBranchingFactor();
+			event.cutoffRate = stats.getCutoffRate();
+			event.hashHitRate = stats.getHashHitRate();
+			event.commit();
+		}//end if
+		return stats;
+	}//end finishSearch
+	
+	//Statistics of the last search or fixedDepthSearch
+	public SearchStats getLastStats()
+	{
+		return this.lastStats;
+	}//end getLastStats
+	
+	//The whole search makes and undoes moves on one copy, an aborted iteration leaves it behind
+	private Board prepareSearch(Board layout)
+	{
+		stopPondering();
+		Board board = new Board(layout);
+		if(!this.pondered)
+			this.transpositionTable.newSearch();
+		this.pondered = false;
+		prepareOrdering(board);
+		if(this.helpers != null)
+		{
+			this.helperBoards = new Board[this.helpers.length];
+			for(int i = 0; i < this.helpers.length; i++)
+			{
+				this.helpers[i].prepareOrdering(board);
+				this.helperBoards[i] = new Board(board);//Moves are always undone, so it matches board at every iteration
+			}//end for
+		}//end if
+		return board;
+	}//end prepareSearch
+	
+	//Score of the last completed iteration from the computer's point of view
+	public int getBestValue()
+	{
+		return this.bestValue;
+	}//end getBestValue
+	
+	//Weights for evaluateBoard, EvaluationWeights.ORIGINAL unless set
+	public void setWeights(EvaluationWeights weights)
+	{
+		this.weights = weights;
+		if(this.helpers != null)
+		{
+			for(Adversarial helper : this.helpers)
+				helper.weights = weights;
+		}//end if
+	}//end setWeights
+	
+	public EvaluationWeights getWeights()
+	{
+		return this.weights;
+	}//end getWeights
+	
+	//Switchable so their effect can be measured in engine matches. Futility pruning is on by default;
+	//late move reductions are off, they have not yet shown a gain at short move times
+	public void setLateMoveReductions(boolean enabled)
+	{
+		this.lateMoveReductions = enabled;
+		if(this.helpers != null)
+		{
+			for(Adversarial helper : this.helpers)
+				helper.lateMoveReductions = enabled;
+		}//end if
+	}//end setLateMoveReductions
+	
+	public void setFutilityPruning(boolean enabled)
+	{
+		this.futilityPruning = enabled;
+		if(this.helpers != null)
+		{
+			for(Adversarial helper : this.helpers)
+				helper.futilityPruning = enabled;
+		}//end if
+	}//end setFutilityPruning
+	
+	public void setOpeningBook(OpeningBook book)
+	{
+		this.openingBook = book;
+	}//end setOpeningBook
+	
+	public void setTablebase(RegionTablebase tablebase)
+	{
+		this.tablebase = tablebase;
+		if(this.helpers != null)
+		{
+			for(Adversarial helper : this.helpers)
+				helper.tablebase = tablebase;
+		}//end if
+	}//end setTablebase
+	
+	//Deepening past normalLimit plies only pays off late in the game, and nothing is gained past the last empty square
+	private int maxDepth(Board layout, int turnCount, int normalLimit)
+	{
+		int emptySquares = Math.min(layout.countEmptySquares(), MAX_PLY - 1);
+		return turnCount > 30 ? emptySquares : Math.min(normalLimit, emptySquares);
+	}//end maxDepth
+	
+	//Forgets everything learnt from earlier searches, for a new game or a repeatable measurement
+	public void newGame()
+	{
+		stopPondering();
+		this.transpositionTable.clear();
+		this.pondered = false;
+	}//end newGame
+	
+	//Ends the current search from another thread, it returns the best move found so far
+	public void stop()
+	{
+		this.timeManager.stop();
+	}//end stop
+	
+	//Searches the position in layout, where the player is to move, on a background thread until
+	//stopPondering is called. Every reply's subtree ends up in the transposition table, so the
+	//search that follows the player's real move starts with those results already in place.
+	public void startPondering(Board layout, int turnCount)
+	{
+		stopPondering();
+		Board board = new Board(layout);
+		this.timeManager.startInfinite();
+		this.transpositionTable.newSearch();
+		this.pondered = true;
+		prepareOrdering(board);
+		this.ponderDepth = 0;
+		//The reply is one ply further from the computer's next search, which may look one ply deeper
+		int maxDepth = maxDepth(board, turnCount, 6 + 1);
+		
+		this.ponderThread = new Thread(() -> {
+			try {
+				for(int depth = 1; depth <= maxDepth; depth++)
+				{
+					negamax(board, this.player, -INFINITY, INFINITY, depth, 0);
+					this.ponderDepth = depth;
+				}//end for
 			}
-		}//end for	
-		return bestMove;
-	}//end alphaBeta
+			catch(NoTimeRemainingException e) {}
+		}, "isolation-ponder");
+		this.ponderThread.setDaemon(true);
+		this.ponderThread.start();
+	}//end startPondering
 	
-	private int maxValue(Board layout, int alpha, int beta, int depthLimit) throws NoTimeRemainingException
-	{	
-		//Time Limit Check 
-		if(!timeRemaining()) throw new NoTimeRemainingException("");
-		//Depth Limit Check
-		if(depthLimit == 0) return evaluateBoard(this.computer, layout);//utility value of terminal state
-		layout.setAvailableSpaces(layout.findAvailableSpaces(this.computer));
-		// Game Over Check
-		if(layout.getAvailableSpaces().size() == 0)return evaluateBoard(this.computer, layout);
+	//Stops pondering and waits for the pondering thread so the search state is free again
+	public void stopPondering()
+	{
+		if(this.ponderThread == null)
+			return;
+		this.timeManager.stop();
+		try {
+			this.ponderThread.join();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.ponderThread = null;
+	}//end stopPondering
+	
+	//Deepest search of the player's position completed by the last pondering
+	public int getPonderDepth()
+	{
+		return this.ponderDepth;
+	}//end getPonderDepth
+	
+	//Positions visited by the last search, summed over every thread
+	public long getNodeCount()
+	{
+		long total = this.nodes;
+		if(this.helpers != null)
+		{
+			for(Adversarial helper : this.helpers)
+				total += helper.nodes;
+		}//end if
+		return total;
+	}//end getNodeCount
+	
+	//Polls the clock every TimeManager.POLL_INTERVAL nodes rather than on every node
+	private void countNode() throws NoTimeRemainingException
+	{
+		if((++this.nodes & (TimeManager.POLL_INTERVAL - 1)) == 0 && this.timeManager.hardLimitReached())
+			throw new NoTimeRemainingException("");
+	}//end countNode
+	
+	//Sizes the per-ply buffers for the board and forgets ordering data that belonged to the last turn
+	private void prepareOrdering(Board layout)
+	{
+		int squares = layout.getBoardDimension() * layout.getBoardDimension();
+		int maxPly = Math.min(squares + 1, MAX_PLY);//Every move burns a square, so no line is longer than squares
+		int maxMoves = 4 * (layout.getBoardDimension() - 1);//A queen has at most dimension - 1 squares on each of its four lines
+		if(this.moveLists == null || this.moveLists.length != maxPly || this.history[0].length != squares)
+		{
+			this.moveLists = new int[maxPly][maxMoves];
+			this.moveScores = new int[maxPly][maxMoves];
+			this.killerMoves = new int[maxPly][2];
+			this.history = new int[2][squares];
+			this.pvTable = new int[maxPly][maxPly];
+			this.pvLength = new int[maxPly];
+			this.previousPv = new int[maxPly];
+			this.rootSplit = new RootSplit(maxMoves, maxPly);
+		}//end if
+		for(int ply = 0; ply < maxPly; ply++)
+		{
+			this.killerMoves[ply][0] = TranspositionTable.NO_MOVE;
+			this.killerMoves[ply][1] = TranspositionTable.NO_MOVE;
+		}//end for
+		//Old history still says something about the position, but recent cutoffs should count more
+		for(int side = 0; side < 2; side++)
+		{
+			for(int square = 0; square < squares; square++)
+				this.history[side][square] >>= 1;
+		}//end for
+		this.previousPvLength = 0;
+		this.nodes = 0;
+		Arrays.fill(this.counters, 0);
+		this.solverFailedSize = Integer.MAX_VALUE;
+	}//end prepareOrdering
+	
+	//Gives every generated move an ordering score: PV move, hash move, killers, then history
+	private void scoreMoves(int ply, int count, int hashMove, int side)
+	{
+		int[] moves = this.moveLists[ply];
+		int[] scores = this.moveScores[ply];
+		int pvMove = this.followPv && ply < this.previousPvLength ? this.previousPv[ply] : TranspositionTable.NO_MOVE;
+		boolean pvFound = false;
 		
-		int value = Integer.MIN_VALUE;//Initialize to Negative Infinity		
+		for(int i = 0; i < count; i++)
+		{
+			int move = moves[i];
+			if(move == pvMove)
+			{
+				scores[i] = PV_SCORE;
+				pvFound = true;
+			}//end if
+			else if(move == hashMove)
+				scores[i] = HASH_SCORE;
+			else if(move == this.killerMoves[ply][0])
+				scores[i] = KILLER_SCORE + 1;
+			else if(move == this.killerMoves[ply][1])
+				scores[i] = KILLER_SCORE;
+			else
+				scores[i] = this.history[side][move];
+		}//end for
+		//Once this line leaves the old principal variation its moves mean nothing further down
+		this.followPv = pvFound;
+	}//end scoreMoves
+	
+	//Selection sort one step at a time, most nodes cut off after the first few moves
+	private int nextMove(int ply, int index, int count)
+	{
+		int[] moves = this.moveLists[ply];
+		int[] scores = this.moveScores[ply];
+		int best = index;
+		for(int i = index + 1; i < count; i++)
+		{
+			if(scores[i] > scores[best])
+				best = i;
+		}//end for
+		int move = moves[best];
+		moves[best] = moves[index];
+		moves[index] = move;
+		int score = scores[best];
+		scores[best] = scores[index];
+		scores[index] = score;
+		return move;
+	}//end nextMove
+	
+	private void countCutoff(int moveIndex)
+	{
+		this.counters[SearchStats.CUTOFFS]++;
+		if(moveIndex == 0)
+			this.counters[SearchStats.FIRST_MOVE_CUTOFFS]++;
+	}//end countCutoff
+	
+	//Remembers a move that refuted its position so it is tried early in sibling positions
+	private void recordCutoff(int ply, int move, int side, int depthLimit)
+	{
+		if(this.killerMoves[ply][0] != move)
+		{
+			this.killerMoves[ply][1] = this.killerMoves[ply][0];
+			this.killerMoves[ply][0] = move;
+		}//end if
+		this.history[side][move] += depthLimit * depthLimit;
+		if(this.history[side][move] >= KILLER_SCORE)
+		{
+			for(int s = 0; s < 2; s++)
+			{
+				for(int square = 0; square < this.history[s].length; square++)
+					this.history[s][square] >>= 1;
+			}//end for
+		}//end if
+	}//end recordCutoff
+	
+	//Makes move the first move of this ply's principal variation, followed by the child's line
+	private void updatePv(int ply, int move)
+	{
+		this.pvTable[ply][ply] = move;
+		int childLength = this.pvLength[ply + 1];
+		System.arraycopy(this.pvTable[ply + 1], ply + 1, this.pvTable[ply], ply + 1, childLength - ply - 1);
+		this.pvLength[ply] = Math.max(childLength, ply + 1);
+	}//end updatePv
+	
+	//Exact score once the players are separated: the side to move wins only with strictly more moves left.
+	//Returns UNSOLVED while they share a region or when proving it would cost too many nodes.
+	//Large boards are left to the search, their regions are far beyond the solver and the tablebase.
+	private int solvePartition(Board layout, boolean computerToMove)
+	{
+		if(!layout.isCompact() || !layout.playersSeparated())
+			return UNSOLVED;
+		this.counters[SearchStats.PARTITION_POSITIONS]++;
+		long computerRegion = layout.findRegion(this.computer);
+		long playerRegion = layout.findRegion(this.player);
+		int computerMoves = probeTablebase(layout, this.computer, computerRegion);
+		int playerMoves = probeTablebase(layout, this.player, playerRegion);
+		if(computerMoves == EndgameSolver.UNKNOWN || playerMoves == EndgameSolver.UNKNOWN)
+		{
+			int regionSize = Math.max(Long.bitCount(computerRegion), Long.bitCount(playerRegion));
+			if(regionSize >= this.solverFailedSize)
+				return UNSOLVED;
+			if(computerMoves != EndgameSolver.UNKNOWN)
+				playerMoves = this.endgameSolver.longestPath(layout, this.player, SOLVER_NODE_LIMIT, computerMoves + 1);
+			else if(playerMoves != EndgameSolver.UNKNOWN)
+				computerMoves = this.endgameSolver.longestPath(layout, this.computer, SOLVER_NODE_LIMIT, playerMoves + 1);
+			else
+			{
+				//The smaller region is counted exactly, the other only needs to be proven long enough to beat it
+				boolean computerSmaller = Long.bitCount(computerRegion) <= Long.bitCount(playerRegion);
+				char smaller = computerSmaller ? this.computer : this.player;
+				char larger = computerSmaller ? this.player : this.computer;
+				int smallerMoves = this.endgameSolver.longestPath(layout, smaller, SOLVER_NODE_LIMIT);
+				int largerMoves = smallerMoves == EndgameSolver.UNKNOWN ? EndgameSolver.UNKNOWN
+						: this.endgameSolver.longestPath(layout, larger, SOLVER_NODE_LIMIT, smallerMoves + 1);
+				computerMoves = computerSmaller ? smallerMoves : largerMoves;
+				playerMoves = computerSmaller ? largerMoves : smallerMoves;
+			}//end else
+			if(computerMoves == EndgameSolver.UNKNOWN || playerMoves == EndgameSolver.UNKNOWN)
+			{
+				this.solverFailedSize = regionSize;
+				return UNSOLVED;
+			}//end if
+		}//end if
 		
-		for(int i = 0; i  < layout.getAvailableSpaces().size(); i++)
-		{	
-			Point move = layout.getAvailableSpaces().get(i);// returns a point the computer can move too			
-			Board successor = new Board(layout, move, this.computer);//moves the computer to that point	
-			value = Math.max(value, minValue(successor, alpha, beta, depthLimit-1));//CALL MIN FOR PLAYEr	
-
-			if(value >= beta)
+		this.counters[SearchStats.PARTITIONS_SOLVED]++;
+		boolean computerWins = computerToMove ? computerMoves > playerMoves : computerMoves >= playerMoves;
+		//The margin breaks ties between wins (or losses) in favour of the most spare moves
+		return (computerWins ? WIN_SCORE : -WIN_SCORE) + computerMoves - playerMoves;
+	}//end solvePartition
+	
+	//Exact longest path for symbol's region from the tablebase, or EndgameSolver.UNKNOWN if it is not covered
+	private int probeTablebase(Board layout, char symbol, long region)
+	{
+		if(this.tablebase == null || Long.bitCount(region) > this.tablebase.getMaxRegionSize())
+			return EndgameSolver.UNKNOWN;
+		this.counters[SearchStats.TABLEBASE_PROBES]++;
+		int length = this.tablebase.probe(region, layout.getSquare(symbol), layout.getBoardDimension());
+		if(length != EndgameSolver.UNKNOWN)
+			this.counters[SearchStats.TABLEBASE_HITS]++;
+		return length;
+	}//end probeTablebase
+	
+	//Searches a window around the last iteration's score, which is usually where this one ends up.
+	//Whichever side fails is widened, twice as far each time, until the score lands inside the window.
+	private int aspirationSearch(Board layout, int depthLimit, boolean centred) throws NoTimeRemainingException
+	{
+		int alpha = -INFINITY, beta = INFINITY;
+		int delta = ASPIRATION_WINDOW;
+		//Proven wins and losses move by a margin of moves, not by evaluation points
+		if(centred && Math.abs(this.bestValue) < WIN_SCORE / 2)
+		{
+			alpha = this.bestValue - delta;
+			beta = this.bestValue + delta;
+		}//end if
+		int previousValue = this.bestValue;
+		while(true)
+		{
+			int move;
+			try {
+				move = alphaBeta(layout, depthLimit, alpha, beta);
+			}
+			catch(NoTimeRemainingException e) {
+				this.bestValue = previousValue;//A window that failed says nothing exact about this depth
+				throw e;
+			}
+			boolean failLow = this.bestValue <= alpha && alpha != -INFINITY;
+			boolean failHigh = this.bestValue >= beta && beta != INFINITY;
+			if(!failLow && !failHigh)
+				return move;
+			this.counters[SearchStats.ASPIRATION_RESEARCHES]++;
+			delta *= 2;
+			if(failLow)
+				alpha = delta > ASPIRATION_LIMIT || Math.abs(this.bestValue) >= WIN_SCORE / 2 ? -INFINITY : this.bestValue - delta;
+			else
+				beta = delta > ASPIRATION_LIMIT || Math.abs(this.bestValue) >= WIN_SCORE / 2 ? INFINITY : this.bestValue + delta;
+		}//end while
+	}//end aspirationSearch
+	
+	//Pass in a depth search limit, the starting board layout of the turn and the root window
+	//With helper threads the first root move is searched alone and the rest are shared out one at a time
+	private int alphaBeta(Board layout, int depthLimit, int alpha, int beta) throws NoTimeRemainingException
+	{
+		long key = layout.getHashKey(this.computer);
+		int hashMove = TranspositionTable.moveOf(this.transpositionTable.probe(key));
+		
+		this.followPv = true;//The previous iteration's best line is searched first
+		int count = layout.generateMoves(this.computer, this.moveLists[0]);
+		scoreMoves(0, count, hashMove, 0);
+		for(int i = 0; i < count; i++)
+			nextMove(0, i, count);//Fixes the root order so every thread agrees on it
+		if(count == 0)
+			return TranspositionTable.NO_MOVE;
+		
+		RootSplit split = this.rootSplit;
+		split.reset(this.moveLists[0], count, alpha, beta);
+		searchRootMove(split, layout, depthLimit, split.claim());
+		
+		ArrayList<Future<?>> running = new ArrayList<Future<?>>();
+		if(this.helpers != null)
+		{
+			for(int i = 0; i < this.helpers.length; i++)
 			{
-				return value;
+				Adversarial helper = this.helpers[i];
+				Board copy = this.helperBoards[i];
+				running.add(this.helperPool.submit(() -> {
+					helper.searchRootMoves(split, copy, depthLimit);
+					return null;
+				}));
+			}//end for
+		}//end if
+		try {
+			searchRootMoves(split, layout, depthLimit);
+		}
+		finally {
+			split.finished = true;//Helpers stop taking moves, the search below them is bounded by time
+			waitForHelpers(running);
+		}//end finally
+		
+		//Ties go to the earlier root move, so the reported move does not depend on which thread finished first
+		int best = 0;
+		for(int i = 1; i < split.count; i++)
+		{
+			if(split.scores[i] > split.scores[best])
+				best = i;
+		}//end for
+		this.bestValue = split.scores[best];
+		int bound = this.bestValue <= alpha ? TranspositionTable.UPPER_BOUND
+				: this.bestValue >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+		this.transpositionTable.store(key, depthLimit, bound, this.bestValue, split.moves[best]);
+		this.previousPvLength = split.pvLengths[best];
+		System.arraycopy(split.pvs[best], 0, this.previousPv, 0, this.previousPvLength);
+		return split.moves[best];
+	}//end alphaBeta
+	
+	//Searches root moves until none are left to claim
+	private void searchRootMoves(RootSplit split, Board layout, int depthLimit) throws NoTimeRemainingException
+	{
+		int index = split.claim();
+		while(index < split.count && !split.finished)
+		{
+			searchRootMove(split, layout, depthLimit, index);
+			index = split.claim();
+		}//end while
+	}//end searchRootMoves
+	
+	//The first root move gets the whole window, the rest only have to show they are no worse than the best so far
+	private void searchRootMove(RootSplit split, Board layout, int depthLimit, int index) throws NoTimeRemainingException
+	{
+		int move = split.moves[index];
+		//One below the best so far, so a move that ties it still gets an exact score
+		int best = split.alpha.get();
+		int alpha = best > split.windowAlpha ? best - 1 : split.windowAlpha;
+		
+		layout.makeMove(this.computer, move);//moves the computer to that point	
+		int value;
+		if(index == 0)
+			value = -negamax(layout, this.player, -split.beta, -alpha, depthLimit-1, 1);
+		else
+		{
+			value = -negamax(layout, this.player, -alpha - 1, -alpha, depthLimit-1, 1);
+			if(value > alpha && value < split.beta)
+			{
+				this.counters[SearchStats.PVS_RESEARCHES]++;
+				value = -negamax(layout, this.player, -split.beta, -alpha, depthLimit-1, 1);
 			}//end if
-			alpha = Math.max(alpha, value);
+		}//end else
+		layout.undoMove();
+		this.followPv = false;
+		
+		split.scores[index] = value;
+		int[] pv = split.pvs[index];
+		pv[0] = move;
+		split.pvLengths[index] = Math.max(this.pvLength[1], 1);
+		System.arraycopy(this.pvTable[1], 1, pv, 1, split.pvLengths[index] - 1);
+		split.alpha.accumulateAndGet(value, Math::max);
+		if(value >= split.beta)
+			split.finished = true;//Failed high, the window has to be widened before the other moves mean anything
+	}//end searchRootMove
+	
+	private void waitForHelpers(ArrayList<Future<?>> running) throws NoTimeRemainingException
+	{
+		boolean outOfTime = false;
+		for(Future<?> helper : running)
+		{
+			try {
+				helper.get();
+			}
+			catch(ExecutionException e) {
+				if(!(e.getCause() instanceof NoTimeRemainingException))
+					throw new IllegalStateException("Search helper failed", e.getCause());
+				outOfTime = true;
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				outOfTime = true;
+			}
 		}//end for
-		return value;
-	}//end maxValue
+		if(outOfTime) throw new NoTimeRemainingException("");
+	}//end waitForHelpers
 	
-	private int minValue(Board layout, int alpha, int beta, int depthLimit) throws NoTimeRemainingException
+	//Root moves of one iteration shared between the threads searching them.
+	//Made once with room for any position on the board and reset for each iteration.
+	private static class RootSplit
 	{
+		private final int[] moves;
+		private final int[] scores;//-INFINITY for moves nobody searched
+		private final int[][] pvs;
+		private final int[] pvLengths;
+		private final AtomicInteger next;
+		private final AtomicInteger alpha;//Best score so far, starting at the bottom of the window
+		private int count;
+		private int windowAlpha;
+		private int beta;
+		private volatile boolean finished;
+		
+		private RootSplit(int maxMoves, int maxPly)
+		{
+			this.moves = new int[maxMoves];
+			this.scores = new int[maxMoves];
+			this.pvs = new int[maxMoves][maxPly];
+			this.pvLengths = new int[maxMoves];
+			this.next = new AtomicInteger(0);
+			this.alpha = new AtomicInteger(0);
+		}//end Constructor
+		
+		private void reset(int[] rootMoves, int count, int alpha, int beta)
+		{
+			System.arraycopy(rootMoves, 0, this.moves, 0, count);
+			Arrays.fill(this.scores, 0, count, -INFINITY);
+			this.count = count;
+			this.next.set(0);
+			this.alpha.set(alpha);
+			this.windowAlpha = alpha;
+			this.beta = beta;
+			this.finished = false;
+		}//end reset
+		
+		private int claim()
+		{
+			return this.next.getAndIncrement();
+		}//end claim
+	}//end RootSplit
+	
+	//Score of the position for side, who is to move: every value is from the point of view of the side moving,
+	//so one method searches both players. Moves after the first are searched with a null window around alpha
+	//(principal variation search) and only searched again with the full window when they turn out better.
+	private int negamax(Board layout, char side, int alpha, int beta, int depthLimit, int ply) throws NoTimeRemainingException
+	{	
 		//Time Limit Check 
-		if(!timeRemaining()) throw new NoTimeRemainingException("");
+		countNode();
+		this.pvLength[ply] = ply;
+		boolean computerToMove = side == this.computer;
+		//Partition Check, walled off players are scored exactly instead of by the heuristic
+		int solved = solvePartition(layout, computerToMove);
+		if(solved != UNSOLVED) return computerToMove ? solved : -solved;
 		//Depth Limit Check
-		if(depthLimit == 0) return evaluateBoard(this.player, layout);//utility value of terminal state
+		if(depthLimit == 0) return evaluateBoard(side, layout);//utility value of terminal state, for the side to move
+		
+		//Transposition Check, a deep enough stored result may settle this node without searching it
+		long key = layout.getHashKey(side);
+		long entry = this.transpositionTable.probe(key);
+		int hashMove = TranspositionTable.moveOf(entry);
+		this.counters[SearchStats.HASH_PROBES]++;
+		if(entry != 0)
+			this.counters[SearchStats.HASH_HITS]++;
+		if(entry != 0 && TranspositionTable.depthOf(entry) >= depthLimit)
+		{
+			int score = TranspositionTable.scoreOf(entry);
+			int bound = TranspositionTable.boundOf(entry);
+			if(bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+					|| (bound == TranspositionTable.UPPER_BOUND && score <= alpha))
+			{
+				this.counters[SearchStats.HASH_CUTOFFS]++;
+				return score;
+			}//end if
+		}//end if
+		
+		int count = layout.generateMoves(side, this.moveLists[ply]);
 		// Game Over Check
-		layout.setAvailableSpaces(layout.findAvailableSpaces(this.player));	
-		if(layout.getAvailableSpaces().size() == 0) return evaluateBoard(this.player, layout);
+		if(count == 0) return -WIN_SCORE;//The side to move is out of moves and loses
 		
-		int value = Integer.MAX_VALUE;//Initialize to Infinity
+		this.counters[SearchStats.EXPANDED]++;
+		char opponent = side == 'X' ? 'O' : 'X';
+		int historySide = computerToMove ? 0 : 1;
+		int value = -INFINITY;
+		int alphaOriginal = alpha;
+		int bestMove = TranspositionTable.NO_MOVE;
+		scoreMoves(ply, count, hashMove, historySide);
 		
-		for(int i = 0; i  < layout.getAvailableSpaces().size(); i++)
+		//Futility: this close to the horizon, a position this far below alpha is not saved by a quiet move,
+		//so only the best ordered move is searched. Moves that wall the players off are not quiet, solvePartition
+		//scores them as proven wins or losses, so they are always searched.
+		int futilityValue = -INFINITY;
+		if(this.futilityPruning && depthLimit <= FUTILITY_DEPTH && Math.abs(alpha) < WIN_SCORE / 2)
 		{
-			Point move = layout.getAvailableSpaces().get(i);
-			Board successor = new Board(layout, move, this.player);//makes the optimal move for the player
-			value = Math.min(value, maxValue(successor, alpha, beta, depthLimit-1));
-			
-			if(value <= alpha)
+			int margin = depthLimit * FUTILITY_MOVES * (Math.abs(this.weights.getMobility()) + Math.abs(this.weights.getOpponentMobility()));
+			int staticValue = evaluateBoard(side, layout);
+			if(staticValue + margin <= alpha)
+				futilityValue = staticValue + margin;
+		}//end if
+		
+		for(int i = 0; i < count; i++)
+		{	
+			int move = nextMove(ply, i, count);
+			layout.makeMove(side, move);
+			if(i > 0 && futilityValue != -INFINITY && !(layout.isCompact() && layout.playersSeparated()))
+			{
+				layout.undoMove();
+				this.counters[SearchStats.FUTILITY_PRUNED]++;
+				value = Math.max(value, futilityValue);//Still an upper bound, and at most alpha
+				continue;
+			}//end if
+			int childValue;
+			if(i == 0)
+				childValue = -negamax(layout, opponent, -beta, -alpha, depthLimit-1, ply+1);
+			else
+			{
+				//Late moves rarely turn out best once the ordering is good, a shallower null window search is tried first
+				boolean reduced = this.lateMoveReductions && i >= LMR_FULL_MOVES && depthLimit >= LMR_MIN_DEPTH
+						&& this.moveScores[ply][i] < KILLER_SCORE;
+				childValue = -negamax(layout, opponent, -alpha - 1, -alpha, depthLimit - (reduced ? 1 + LMR_REDUCTION : 1), ply+1);
+				if(reduced)
+				{
+					this.counters[SearchStats.REDUCTIONS]++;
+					if(childValue > alpha)
+					{
+						this.counters[SearchStats.REDUCTION_RESEARCHES]++;
+						childValue = -negamax(layout, opponent, -alpha - 1, -alpha, depthLimit-1, ply+1);
+					}//end if
+				}//end if
+				if(childValue > alpha && childValue < beta)
+				{
+					this.counters[SearchStats.PVS_RESEARCHES]++;
+					childValue = -negamax(layout, opponent, -beta, -alpha, depthLimit-1, ply+1);
+				}//end if
+			}//end else
+			layout.undoMove();
+			this.followPv = false;
+			if(childValue > value)
+			{
+				value = childValue;
+				bestMove = move;
+			}//end if
+
+			if(value >= beta)
 			{
+				countCutoff(i);
+				recordCutoff(ply, move, historySide, depthLimit);
+				this.transpositionTable.store(key, depthLimit, TranspositionTable.LOWER_BOUND, value, bestMove);
 				return value;
 			}//end if
-			beta = Math.min(beta, value);
+			if(value > alpha)
+			{
+				alpha = value;
+				updatePv(ply, move);
+			}//end if
 		}//end for
+		this.transpositionTable.store(key, depthLimit, value <= alphaOriginal ? TranspositionTable.UPPER_BOUND
+				: TranspositionTable.EXACT, value, value <= alphaOriginal ? TranspositionTable.NO_MOVE : bestMove);
 		return value;
-	}//minValue
+	}//end negamax
 	
-	private int evaluateBoard(char caller, Board layout)
+	int evaluateBoard(char caller, Board layout)
 	{
-		//Multipliers to adjust the weight of a good or bad move
-		int x = 3, y = 1, z = 3;
-		char player = caller;
-		char opponent;
+		//Multipliers to adjust the weight of a good or bad move, see EvaluationWeights
+		EvaluationWeights w = this.weights;
+		char opponent = caller == 'X' ? 'O' : 'X';
+		int dimension = layout.getBoardDimension();
+		int playerSquare = layout.getSquare(caller);
+		int opponentSquare = layout.getSquare(opponent);
 		
-		if(caller =='X')
+		int utilityValue = w.getMobility() * layout.countAvailableSpaces(caller);
+		utilityValue += w.getOpponentMobility() * layout.countAvailableSpaces(opponent);
+		if(!layout.isCompact())
 		{
-			opponent = 'O';
-		}
-		else
-			opponent = 'X';
-		
-		Point playerPosition = layout.findPosition(player);
-		Point opponentPosition = layout.findPosition(opponent);
-		int utilityValue = x * layout.findAvailableSpaces(player).size();
-		utilityValue -= y * layout.findAvailableSpaces(opponent).size();
-		
-		//Reduces utility value by a factor of ten if the player is next to one of board's edges
-		if(playerPosition.getX() == 0 || playerPosition.getX() == layout.getBoardDimension() - 1)
-			utilityValue -= 10;
-		//Reduces utility value by a factor of ten if the player is next to one of board's edges
-		if(playerPosition.getY() == 0 || playerPosition.getY() == layout.getBoardDimension() - 1)
-			utilityValue -= 10;	
-		//Subtracts a value for each surrounding space filled
-		for(int i = -1; i <= 1; i++)
-		{
-			for(int j = -1; j < 1; j++)
-			{
-				if(i + playerPosition.getX() >= 0 && i + playerPosition.getX() <= layout.getBoardDimension() - 1
-					&& j + playerPosition.getY() >= 0 && j + playerPosition.getY() <= layout.getBoardDimension() - 1)
-				{
-					if(layout.getBoardLayout()[(int)playerPosition.getX() + i][(int)playerPosition.getY() + j] != '-')
-						utilityValue -= z;
-				}//end if
-				if(i + opponentPosition.getX() >= 0 && i + opponentPosition.getX() <= layout.getBoardDimension() - 1
-					&& j + opponentPosition.getY() >= 0 && j + opponentPosition.getY() <= layout.getBoardDimension() - 1)
-				{
-					if(layout.getBoardLayout()[(int)opponentPosition.getX() + i][(int)opponentPosition.getY() + j] != '-')
-						utilityValue += z;
-				}//end if
-			}//end inner for
-		}//end outer for
+			utilityValue += w.getEdge() * edgeCount(dimension, playerSquare);
+			utilityValue += w.getBlocked() * countBlockedWindow(layout, playerSquare);
+			utilityValue += w.getOpponentBlocked() * countBlockedWindow(layout, opponentSquare);
+			return utilityValue;
+		}//end if
+		long occupied = layout.getOccupied();
+		//For each of the board's edges the player is next to
+		utilityValue += w.getEdge() * EDGE_COUNTS[dimension][playerSquare];
+		//For each filled space next to the player, and next to the opponent
+		utilityValue += w.getBlocked() * Long.bitCount(occupied & BLOCK_WINDOWS[dimension][playerSquare]);
+		utilityValue += w.getOpponentBlocked() * Long.bitCount(occupied & BLOCK_WINDOWS[dimension][opponentSquare]);
 		return utilityValue;
 	}//end evaluateBoard
+	
+	//The terms evaluateBoard weighs for caller, in EvaluationWeights order; evaluateBoard is their weighted sum
+	static void evaluationFeatures(char caller, Board layout, int[] features)
+	{
+		char opponent = caller == 'X' ? 'O' : 'X';
+		int dimension = layout.getBoardDimension();
+		int playerSquare = layout.getSquare(caller);
+		int opponentSquare = layout.getSquare(opponent);
+		features[0] = layout.countAvailableSpaces(caller);
+		features[1] = layout.countAvailableSpaces(opponent);
+		features[2] = edgeCount(dimension, playerSquare);
+		features[3] = countBlockedWindow(layout, playerSquare);
+		features[4] = countBlockedWindow(layout, opponentSquare);
+	}//end evaluationFeatures
+	
+	//Number of the board's edges next to square
+	private static int edgeCount(int dimension, int square)
+	{
+		int row = square / dimension, col = square % dimension;
+		int edges = 0;
+		if(row == 0 || row == dimension - 1)
+			edges++;
+		if(col == 0 || col == dimension - 1)
+			edges++;
+		return edges;
+	}//end edgeCount
+	
+	//Blocked squares in the BLOCK_WINDOWS window of square, for boards too large for the tables
+	private static int countBlockedWindow(Board layout, int square)
+	{
+		int dimension = layout.getBoardDimension();
+		int row = square / dimension, col = square % dimension;
+		int blocked = 0;
+		for(int i = Math.max(row - 1, 0); i <= Math.min(row + 1, dimension - 1); i++)
+		{
+			for(int j = Math.max(col - 1, 0); j <= col; j++)
+			{
+				if(layout.isBlocked(i, j))
+					blocked++;
+			}//end inner for
+		}//end outer for
+		return blocked;
+	}//end countBlockedWindow
 }//end class MinMax
\ No newline at end of file
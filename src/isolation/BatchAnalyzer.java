@@ -0,0 +1,166 @@
+package isolation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+//Offline analysis of a file of positions, one per line in Board.toPositionString form.
+//A line may end with its own limit, "time <ms>" or "depth <n>", in place of the engine's.
+//Positions are read only as fast as the workers take them, so memory stays the same however long the file is,
+//and each result is written as soon as it is known, in the order the searches finish:
+//  <line> <position> <bestmove|none> <score> <depth> <nodes> <milliseconds> <source>
+//Usage: BatchAnalyzer -in <file> -out <file> [-engine <spec>] [-concurrency N]
+//The engine spec is an EngineOptions spec, its time or depth being the limit for lines without one.
+public class BatchAnalyzer
+{
+	private EngineOptions options;
+	private int concurrency;
+	private int analysed;
+	private int failed;
+
+	public BatchAnalyzer(EngineOptions options, int concurrency)
+	{
+		this.options = options;
+		this.concurrency = Math.max(1, concurrency);
+	}//end Constructor
+
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		String in = null;
+		String out = null;
+		EngineOptions options = new EngineOptions();
+		int concurrency = -1;
+		for(int i = 0; i < args.length; i++)
+		{
+			switch(args[i])
+			{
+				case "-in": in = args[++i]; break;
+				case "-out": out = args[++i]; break;
+				case "-engine": options = EngineOptions.parse(args[++i]); break;
+				case "-concurrency": concurrency = Integer.parseInt(args[++i]); break;
+				default: throw new IllegalArgumentException("Unknown argument " + args[i]);
+			}//end switch
+		}//end for
+		if(in == null || out == null)
+			throw new IllegalArgumentException("Usage: BatchAnalyzer -in <file> -out <file> [-engine <spec>] [-concurrency N]");
+		if(concurrency <= 0)
+			concurrency = Math.max(1, Runtime.getRuntime().availableProcessors() / options.getThreads());
+
+		BatchAnalyzer analyzer = new BatchAnalyzer(options, concurrency);
+		long start = System.nanoTime();
+		try(BufferedReader reader = Files.newBufferedReader(Paths.get(in), StandardCharsets.UTF_8);
+				PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8))) {
+			analyzer.run(reader, writer);
+		}
+		System.out.printf("%d positions analysed, %d rejected, in %.1f s%n", analyzer.getAnalysed(), analyzer.getFailed(),
+				(System.nanoTime() - start) / 1e9);
+	}//end main
+
+	//Analyses every line of reader, writing one result line per position to writer
+	public void run(BufferedReader reader, PrintWriter writer) throws IOException, InterruptedException
+	{
+		List<SearchEngine> created = new ArrayList<SearchEngine>();
+		//[0] plays 'X' and [1] plays 'O', one pair per worker thread
+		ThreadLocal<SearchEngine[]> workerEngines = ThreadLocal.withInitial(() -> {
+			SearchEngine[] pair = {this.options.createEngine('X'), this.options.createEngine('O')};
+			synchronized(created)
+			{
+				created.add(pair[0]);
+				created.add(pair[1]);
+			}//end synchronized
+			return pair;
+		});
+
+		//A line is only read once a worker is close to free, which is what keeps memory bounded
+		Semaphore slots = new Semaphore(this.concurrency * 2);
+		ExecutorService pool = Executors.newFixedThreadPool(this.concurrency);
+		try {
+			String line;
+			int lineNumber = 0;
+			while((line = reader.readLine()) != null)
+			{
+				lineNumber++;
+				String text = line.trim();
+				if(text.isEmpty())
+					continue;
+				int number = lineNumber;
+				slots.acquire();
+				pool.execute(() -> {
+					try {
+						String result = analyse(text, workerEngines.get());
+						write(writer, number + " " + result, true);
+					}
+					catch(RuntimeException e) {
+						write(writer, number + " " + text.split("\\s+")[0] + " error " + e.getMessage(), false);
+					}
+					finally {
+						slots.release();
+					}
+				});
+			}//end while
+		}
+		finally {
+			pool.shutdown();
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+			for(SearchEngine engine : created)
+				engine.shutdown();
+		}
+	}//end run
+
+	//Searches the position on one line and returns its result without the line number
+	private String analyse(String line, SearchEngine[] pair)
+	{
+		String[] words = line.split("\\s+");
+		Board board = Board.fromPositionString(words[0]);
+		long moveTime = this.options.getMoveTimeMillis();
+		int depth = this.options.getDepth();
+		for(int i = 1; i + 1 < words.length; i += 2)
+		{
+			switch(words[i])
+			{
+				case "time": moveTime = Long.parseLong(words[i + 1]); depth = 0; break;
+				case "depth": depth = Integer.parseInt(words[i + 1]); break;
+				default: throw new IllegalArgumentException("unknown limit " + words[i]);
+			}//end switch
+		}//end for
+
+		char side = board.getSideToMove();
+		if(board.countAvailableSpaces(side) == 0)
+			return words[0] + " none 0 0 0 0 -";
+		SearchEngine engine = pair[side == 'X' ? 0 : 1];
+		engine.setMoveTimeMillis(moveTime);
+		SearchStats stats = depth > 0 ? engine.searchFixed(board, depth) : engine.search(board, board.getMoveCount());
+		return words[0] + " " + board.formatSquare(stats.getSquare()) + " " + stats.getScore() + " " + stats.getDepth()
+				+ " " + stats.getNodes() + " " + stats.getElapsedNanos() / 1000000L + " " + stats.getSource();
+	}//end analyse
+
+	//Results are flushed one at a time so a long run can be followed, or cut short, without losing any
+	private synchronized void write(PrintWriter writer, String result, boolean analysed)
+	{
+		writer.println(result);
+		writer.flush();
+		if(analysed)
+			this.analysed++;
+		else
+			this.failed++;
+	}//end write
+
+	public synchronized int getAnalysed()
+	{
+		return this.analysed;
+	}//end getAnalysed
+
+	public synchronized int getFailed()
+	{
+		return this.failed;
+	}//end getFailed
+}//end BatchAnalyzer
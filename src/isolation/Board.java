@@ -2,270 +2,744 @@ package isolation;
 
 import java.util.ArrayList;
 import java.awt.Point;
+import java.util.SplittableRandom;
 
+//Bitboard representation: bit (row * boardDimension + col) is set when that square is blocked.
+//Boards wider than 8 do not fit one 64-bit word, they keep one word per row instead (bit col of that row's word).
 public class Board
 {
+	//Ray directions, the first four walk towards higher square indices
+	private static final int DOWN = 0, RIGHT = 1, BOTTOM_LEFT = 2, BOTTOM_RIGHT = 3;
+	private static final int UP = 4, LEFT = 5, TOP_LEFT = 6, TOP_RIGHT = 7;
+	private static final int[] ROW_STEP = {1, 0, 1, 1, -1, 0, -1, -1};
+	private static final int[] COL_STEP = {0, 1, -1, 1, 0, -1, -1, 1};
+	static final int MAX_COMPACT_DIMENSION = 8;//Every square fits in one 64-bit word
+	static final int MAX_DIMENSION = 64;//Every row fits in one 64-bit word
+	private static final long[][][] RAY_TABLES = new long[MAX_COMPACT_DIMENSION + 1][][];
+	//Zobrist keys, fixed seed so keys stay the same from run to run
+	private static final long[] OCCUPIED_KEYS = new long[MAX_DIMENSION * MAX_DIMENSION];
+	private static final long[] X_KEYS = new long[MAX_DIMENSION * MAX_DIMENSION];
+	private static final long[] O_KEYS = new long[MAX_DIMENSION * MAX_DIMENSION];
+	private static final long SIDE_KEY;
+	//Per-dimension masks for one-step shifts: every square, and squares not in the left or right column
+	private static final long[] BOARD_MASKS = new long[MAX_COMPACT_DIMENSION + 1];
+	private static final long[] NOT_LEFT_COLUMN = new long[MAX_COMPACT_DIMENSION + 1];
+	private static final long[] NOT_RIGHT_COLUMN = new long[MAX_COMPACT_DIMENSION + 1];
+	//Symmetric images of a position: bits 0-2 of a transform pick one of Symmetry's eight rotations and reflections,
+	//bit 3 swaps the players' colours and with them the side to move. Both players move alike, so every image plays the same.
+	public static final int TRANSFORMS = 16;
+	public static final int SWAP_COLOURS = 8;
+	private static final int[][][] SQUARE_MAPS = new int[MAX_DIMENSION + 1][][];
+
+	static
+	{
+		//The keys of the first 64 squares and the side key are drawn first so 8x8 keys, and the books built with them, stay the same
+		SplittableRandom random = new SplittableRandom(0x150A7105L);
+		long sideKey = 0;
+		for(int square = 0; square < OCCUPIED_KEYS.length; square++)
+		{
+			OCCUPIED_KEYS[square] = random.nextLong();
+			X_KEYS[square] = random.nextLong();
+			O_KEYS[square] = random.nextLong();
+			if(square == MAX_COMPACT_DIMENSION * MAX_COMPACT_DIMENSION - 1)
+				sideKey = random.nextLong();
+		}//end for
+		SIDE_KEY = sideKey;
+
+		for(int dimension = 1; dimension <= MAX_COMPACT_DIMENSION; dimension++)
+		{
+			for(int row = 0; row < dimension; row++)
+			{
+				for(int col = 0; col < dimension; col++)
+				{
+					long bit = 1L << (row * dimension + col);
+					BOARD_MASKS[dimension] |= bit;
+					if(col != 0)
+						NOT_LEFT_COLUMN[dimension] |= bit;
+					if(col != dimension - 1)
+						NOT_RIGHT_COLUMN[dimension] |= bit;
+				}//end inner for
+			}//end middle for
+		}//end outer for
+	}//end static
+
 	private int boardDimension;
-	private Board parent;
-	private char[][] boardLayout;
-	private int depth;
-	private ArrayList<Point> availableSpaces;
+	private long occupied;//Burned squares plus both players' squares
+	private long[] rowBits;//Used instead of occupied on boards wider than 8, null otherwise
+	private int xSquare;
+	private int oSquare;
+	private long zobristKey;//Updated incrementally by makeMove and undoMove
+	private long[][] rays;//rays[direction][square] for this board's dimension
+	private int[] undoStack;//(previous square << 1) | (1 if 'O' moved) for every move made
+	private int undoCount;
 	private char initialPlayer; //Whose goes first?
-	
+
 	public Board(int bD, char player)
 	{
+		if(bD < 2 || bD > MAX_DIMENSION)
+			throw new IllegalArgumentException("Board dimension must be between 2 and " + MAX_DIMENSION);
 		this.boardDimension = bD;
-		this.parent = null;
-		this.boardLayout = new char[this.boardDimension][this.boardDimension];
-		this.depth = 0;
-		this.availableSpaces = new ArrayList<Point>(64);//64 is max available (prevents resizing)
+		if(bD <= MAX_COMPACT_DIMENSION)
+			this.rays = rayTable(this.boardDimension);
+		else
+			this.rowBits = new long[bD];
+		this.undoStack = new int[this.boardDimension * this.boardDimension];//Each move burns a square
+		this.undoCount = 0;
 		this.initialPlayer = player;//The player who will go first
 		initializeBoardLayout();
-		this.availableSpaces = this.findAvailableSpaces(initialPlayer);
 	}//end Default Constructor
-	
-	//Calls this constructor to generate Board state of next move
-	//char player is the player who is making the move on the board
-	public Board(Board parent, Point destination, char cP) //char cp is the passed in "currentPlayer"
-	{
-		this.parent = parent;
-		this.boardDimension = this.parent.boardDimension;
-		this.boardLayout = new char[this.boardDimension][this.boardDimension];
-		copyBoardLayout(this.parent, this.boardLayout);
-		this.depth = this.parent.depth + 1;
-		movePlayer(cP, destination);	
-	}//end Constructor
 
+	//Copies a board so a search can make and undo moves on it without touching the original
+	public Board(Board other)
+	{
+		this.boardDimension = other.boardDimension;
+		this.rays = other.rays;
+		this.occupied = other.occupied;
+		this.rowBits = other.rowBits == null ? null : other.rowBits.clone();
+		this.xSquare = other.xSquare;
+		this.oSquare = other.oSquare;
+		this.zobristKey = other.zobristKey;
+		this.undoStack = other.undoStack.clone();
+		this.undoCount = other.undoCount;
+		this.initialPlayer = other.initialPlayer;
+	}//end Copy Constructor
+
+	//For callers still holding a Point from the screen, makeMove takes the square number
 	public void movePlayer(char cP, Point destination)
 	{
-		//Need to get current position of player to mark it as '#' after moving
-		Point lastPosition = new Point(this.findPosition(cP));
-		//Move player to destination position	
-		this.boardLayout[(int)destination.getX()][(int)destination.getY()] = cP;
-		//Overwrite previous position of player with '#'
-		this.boardLayout[(int)lastPosition.getX()][(int)lastPosition.getY()] = '#';
+		makeMove(cP, toSquare(destination));
 	}//end movePlayer
-	
-	private void initializeBoardLayout()
+
+	//The square the player leaves stays in occupied, which marks it as '#'
+	//char cP is the player who is making the move on the board
+	public void makeMove(char cP, int destination)
 	{
-		for(int row = 0; row < this.boardDimension; row++)
+		block(destination);
+		this.zobristKey ^= OCCUPIED_KEYS[destination];
+		if(cP == 'X')
 		{
-			for(int col = 0; col < this.boardDimension; col++)
-			{
-				this.boardLayout[row][col] = '-';
-			}//end inner for
-		}//end outer for
-		
+			this.undoStack[this.undoCount++] = this.xSquare << 1;
+			this.zobristKey ^= X_KEYS[this.xSquare] ^ X_KEYS[destination];
+			this.xSquare = destination;
+		}//end if
+		else
+		{
+			this.undoStack[this.undoCount++] = (this.oSquare << 1) | 1;
+			this.zobristKey ^= O_KEYS[this.oSquare] ^ O_KEYS[destination];
+			this.oSquare = destination;
+		}//end else
+	}//end makeMove
+
+	//Takes back the last move made, freeing the square moved to and restoring the previous position
+	public void undoMove()
+	{
+		int entry = this.undoStack[--this.undoCount];
+		if((entry & 1) == 0)
+		{
+			unblock(this.xSquare);
+			this.zobristKey ^= OCCUPIED_KEYS[this.xSquare] ^ X_KEYS[this.xSquare] ^ X_KEYS[entry >>> 1];
+			this.xSquare = entry >>> 1;
+		}//end if
+		else
+		{
+			unblock(this.oSquare);
+			this.zobristKey ^= OCCUPIED_KEYS[this.oSquare] ^ O_KEYS[this.oSquare] ^ O_KEYS[entry >>> 1];
+			this.oSquare = entry >>> 1;
+		}//end else
+	}//end undoMove
+
+	//Squares moved to on this board, oldest first, into moves; returns how many there are.
+	//Boards made by fromPositionString only know the moves made since.
+	public int getMoveHistory(int[] moves)
+	{
+		for(int i = 0; i < this.undoCount; i++)
+		{
+			//A move's square is where the same player stood before its next move, or stands now
+			boolean oMoved = (this.undoStack[i] & 1) == 1;
+			int next = i + 1;
+			while(next < this.undoCount && ((this.undoStack[next] & 1) == 1) != oMoved)
+				next++;
+			moves[i] = next < this.undoCount ? this.undoStack[next] >>> 1 : oMoved ? this.oSquare : this.xSquare;
+		}//end for
+		return this.undoCount;
+	}//end getMoveHistory
+
+	private void initializeBoardLayout()
+	{
 		//Initializes Starting Positions for Both Players ('O' will always be bottom right)
-		this.boardLayout[0][0] = 'X';
-		this.boardLayout[this.boardDimension - 1][this.boardDimension - 1] = 'O';
+		this.xSquare = 0;
+		this.oSquare = this.boardDimension * this.boardDimension - 1;
+		block(this.xSquare);
+		block(this.oSquare);
+		this.zobristKey = OCCUPIED_KEYS[this.xSquare] ^ OCCUPIED_KEYS[this.oSquare]
+				^ X_KEYS[this.xSquare] ^ O_KEYS[this.oSquare];
 	}//end initializeBoardLayout
-	
-	private void copyBoardLayout(Board parent, char[][] childBoardLayout)
+
+	private void block(int square)
 	{
-		for(int row = 0; row < this.boardDimension; row++)
+		if(this.rowBits == null)
+			this.occupied |= 1L << square;
+		else
+			this.rowBits[square / this.boardDimension] |= 1L << (square % this.boardDimension);
+	}//end block
+
+	private void unblock(int square)
+	{
+		if(this.rowBits == null)
+			this.occupied &= ~(1L << square);
+		else
+			this.rowBits[square / this.boardDimension] &= ~(1L << (square % this.boardDimension));
+	}//end unblock
+
+	//Boards of at most 8x8 keep every square in one word; only they have move masks, regions and rays
+	public boolean isCompact()
+	{
+		return this.rowBits == null;
+	}//end isCompact
+
+	private void requireCompact()
+	{
+		if(this.rowBits != null)
+			throw new IllegalStateException("Square masks need a board of at most " + MAX_COMPACT_DIMENSION + "x" + MAX_COMPACT_DIMENSION);
+	}//end requireCompact
+
+	//Builds the ray masks for every square once per dimension, rays exclude the starting square
+	static synchronized long[][] rayTable(int dimension)
+	{
+		if(RAY_TABLES[dimension] != null)
+			return RAY_TABLES[dimension];
+
+		long[][] table = new long[8][dimension * dimension];
+		for(int direction = 0; direction < 8; direction++)
 		{
-			for(int col = 0; col < this.boardDimension; col++)
+			for(int row = 0; row < dimension; row++)
 			{
-				childBoardLayout[row][col] = parent.boardLayout[row][col];
-			}//end inner for
+				for(int col = 0; col < dimension; col++)
+				{
+					long ray = 0;
+					int r = row + ROW_STEP[direction];
+					int c = col + COL_STEP[direction];
+					while(r >= 0 && r < dimension && c >= 0 && c < dimension)
+					{
+						ray |= 1L << (r * dimension + c);
+						r += ROW_STEP[direction];
+						c += COL_STEP[direction];
+					}//end while
+					table[direction][row * dimension + col] = ray;
+				}//end inner for
+			}//end middle for
 		}//end outer for
-	}//end copyBoardLayout
-	
-	public Point findPosition(char player)
+		RAY_TABLES[dimension] = table;
+		return table;
+	}//end rayTable
+
+	//Every empty square a queen on square can slide to, stopping at the first blocked square of each ray
+	static long queenMoves(long[][] rays, int square, long blocked)
 	{
-		Point position = new Point();
-		for(int row = 0; row < this.boardDimension; row++)
+		long moves = 0;
+		for(int direction = 0; direction < 8; direction++)
 		{
-			for(int col = 0; col < this.boardDimension; col++)
+			long ray = rays[direction][square];
+			long blockers = ray & blocked;
+			if(blockers != 0)
 			{
-				if(this.boardLayout[row][col] == player)
-				{
-					position.setLocation(row, col);
-				}//end if
-			}//end inner for
-		}//end outer for
-		return position;
+				int blocker = direction < UP ? Long.numberOfTrailingZeros(blockers)
+						: 63 - Long.numberOfLeadingZeros(blockers);
+				ray &= ~(rays[direction][blocker] | (1L << blocker));
+			}//end if
+			moves |= ray;
+		}//end for
+		return moves;
+	}//end queenMoves
+
+	//Every square one king step away from a square in set
+	static long neighbours(long set, int dimension)
+	{
+		long row = set | ((set & NOT_RIGHT_COLUMN[dimension]) << 1) | ((set & NOT_LEFT_COLUMN[dimension]) >>> 1);
+		return (row | (row << dimension) | (row >>> dimension)) & BOARD_MASKS[dimension] & ~set;
+	}//end neighbours
+
+	//Empty squares connected to square through other empty squares, the squares a player there could ever reach
+	static long floodFill(int square, long empty, int dimension)
+	{
+		long region = neighbours(1L << square, dimension) & empty;
+		long grown = region;
+		do
+		{
+			region = grown;
+			grown = region | (neighbours(region, dimension) & empty);
+		}
+		while(grown != region);
+		return region;
+	}//end floodFill
+
+	//Compact boards only
+	public long findRegion(char player)
+	{
+		requireCompact();
+		return floodFill(getSquare(player), ~this.occupied & BOARD_MASKS[this.boardDimension], this.boardDimension);
+	}//end findRegion
+
+	//True once no empty square can be reached by both players, each then plays alone in its own region
+	public boolean playersSeparated()
+	{
+		if(this.rowBits != null)
+			return rowsSeparated();
+		long empty = ~this.occupied & BOARD_MASKS[this.boardDimension];
+		long target = neighbours(1L << this.oSquare, this.boardDimension) & empty;
+		long region = neighbours(1L << this.xSquare, this.boardDimension) & empty;
+		//Stops as soon as X's region touches a square next to O, which is what usually happens
+		while((region & target) == 0)
+		{
+			long grown = region | (neighbours(region, this.boardDimension) & empty);
+			if(grown == region)
+				return true;
+			region = grown;
+		}//end while
+		return false;
+	}//end playersSeparated
+
+	//playersSeparated for boards kept one word per row, growing X's region a row at a time
+	private boolean rowsSeparated()
+	{
+		long[] region = new long[this.boardDimension];
+		long[] target = new long[this.boardDimension];
+		long[] grown = new long[this.boardDimension];
+		region[this.xSquare / this.boardDimension] = 1L << (this.xSquare % this.boardDimension);
+		target[this.oSquare / this.boardDimension] = 1L << (this.oSquare % this.boardDimension);
+		growRows(target, target);
+		growRows(region, grown);
+		while(true)
+		{
+			boolean changed = false;
+			for(int row = 0; row < this.boardDimension; row++)
+			{
+				if((grown[row] & target[row]) != 0)
+					return false;
+				changed |= grown[row] != region[row];
+			}//end for
+			if(!changed)
+				return true;
+			long[] swap = region;
+			region = grown;
+			grown = swap;
+			growRows(region, grown);
+		}//end while
+	}//end rowsSeparated
+
+	//to becomes the empty squares in or one king step away from a square of from, both one word per row
+	private void growRows(long[] from, long[] to)
+	{
+		long rowMask = this.boardDimension == 64 ? -1L : (1L << this.boardDimension) - 1;
+		long above = 0;
+		for(int row = 0; row < this.boardDimension; row++)
+		{
+			long current = from[row];
+			long lines = above | current | (row + 1 < this.boardDimension ? from[row + 1] : 0);
+			above = current;//from may be to, so the row is kept before it is overwritten
+			to[row] = (lines | (lines << 1) | (lines >>> 1)) & rowMask & ~this.rowBits[row];
+		}//end for
+	}//end growRows
+
+	long[][] getRays()
+	{
+		return this.rays;
+	}//end getRays
+
+	public int getSquare(char player)
+	{
+		return player == 'X' ? this.xSquare : this.oSquare;
+	}//end getSquare
+
+	public Point findPosition(char player)
+	{
+		return toPoint(getSquare(player));
 	}//end findPosition
-	
+
+	//Bitboard of every square the player can move to, compact boards only
+	public long findMoveMask(char player)
+	{
+		requireCompact();
+		return queenMoves(this.rays, getSquare(player), this.occupied);
+	}//end findMoveMask
+
+	//Writes the squares the player can move to into moves and returns how many there are
+	public int generateMoves(char player, int[] moves)
+	{
+		if(this.rowBits != null)
+			return walkMoves(getSquare(player), moves);
+		long mask = findMoveMask(player);
+		int count = 0;
+		while(mask != 0)
+		{
+			moves[count++] = Long.numberOfTrailingZeros(mask);
+			mask &= mask - 1;//Clears the lowest set bit
+		}//end while
+		return count;
+	}//end generateMoves
+
+	public int countAvailableSpaces(char player)
+	{
+		if(this.rowBits != null)
+			return walkMoves(getSquare(player), null);
+		return Long.bitCount(findMoveMask(player));
+	}//end countAvailableSpaces
+
+	//Move generation for boards kept one word per row: each ray is walked to its first blocked square,
+	//so the cost follows the number of moves rather than the size of the board. moves may be null to only count.
+	private int walkMoves(int square, int[] moves)
+	{
+		int row = square / this.boardDimension;
+		int col = square % this.boardDimension;
+		int count = 0;
+		for(int direction = 0; direction < 8; direction++)
+		{
+			int r = row + ROW_STEP[direction];
+			int c = col + COL_STEP[direction];
+			while(r >= 0 && r < this.boardDimension && c >= 0 && c < this.boardDimension && (this.rowBits[r] & (1L << c)) == 0)
+			{
+				if(moves != null)
+					moves[count] = r * this.boardDimension + c;
+				count++;
+				r += ROW_STEP[direction];
+				c += COL_STEP[direction];
+			}//end while
+		}//end for
+		return count;
+	}//end walkMoves
+
+	//Whether the player can move to square, on a board of any size
+	public boolean isLegalMove(char player, int square)
+	{
+		if(square < 0 || square >= this.boardDimension * this.boardDimension)
+			return false;
+		if(this.rowBits == null)
+			return (findMoveMask(player) & (1L << square)) != 0;
+		int from = getSquare(player);
+		int rows = square / this.boardDimension - from / this.boardDimension;
+		int cols = square % this.boardDimension - from % this.boardDimension;
+		if((rows == 0 && cols == 0) || (rows != 0 && cols != 0 && Math.abs(rows) != Math.abs(cols)))
+			return false;//Not on one of the player's lines
+		int step = Integer.signum(rows) * this.boardDimension + Integer.signum(cols);
+		for(int between = from + step; ; between += step)
+		{
+			if(isBlocked(between / this.boardDimension, between % this.boardDimension))
+				return false;
+			if(between == square)
+				return true;
+		}//end for
+	}//end isLegalMove
+
+	//Moves as Points for display code; the search and everything between uses generateMoves and square numbers
 	public ArrayList<Point> findAvailableSpaces(char player)
 	{
 		ArrayList<Point> availableSpaces = new ArrayList<Point>(64);
-		//Where the player 'X' or 'O' is currently located
-		Point currentPosition = new Point(findPosition(player));
-		
-		//Find Available Moves in directions (up, down, left, right)
-		findUDLRSpaces(availableSpaces, currentPosition);
-		//Find Available Moves on diagonals
-		findDiagonalSpaces(availableSpaces, currentPosition);
-		
+		if(this.rowBits != null)
+		{
+			int[] moves = new int[4 * this.boardDimension];
+			int count = walkMoves(getSquare(player), moves);
+			for(int i = 0; i < count; i++)
+				availableSpaces.add(toPoint(moves[i]));
+			return availableSpaces;
+		}//end if
+		long moves = findMoveMask(player);
+		while(moves != 0)
+		{
+			availableSpaces.add(toPoint(Long.numberOfTrailingZeros(moves)));
+			moves &= moves - 1;//Clears the lowest set bit
+		}//end while
 		return availableSpaces;
 	}//end findAvailableSpaces
-	
-	private void findUDLRSpaces(ArrayList<Point> availableSpaces, Point currentPosition)
-	{
-		int row = (int)currentPosition.getX();
-		int col = (int)currentPosition.getY();
-		
-		//Checks for availableSpaces moving 'DOWN'
-		for(int i = row + 1; i < this.boardDimension; i++)
+
+	public Point toPoint(int square)
+	{
+		return new Point(square / this.boardDimension, square % this.boardDimension);
+	}//end toPoint
+
+	public int toSquare(Point position)
+	{
+		return (int)position.getX() * this.boardDimension + (int)position.getY();
+	}//end toSquare
+
+	//Square named the way the game reads moves, row letters and a column number ("D4", "AB12"), or -1 if it is not on this board
+	public int parseSquare(String name)
+	{
+		int letters = 0;
+		int row = 0;
+		while(letters < name.length() && Character.isLetter(name.charAt(letters)))
 		{
-			//'-' denotes an available/empty space
-			if(this.boardLayout[i][col] == '-')
-			{
-				availableSpaces.add(new Point(i, col));
-			}//end if
-			else
-			{
-				break;
-			}//end else
-		}//end for
-		
-		//Checks for availableSpaces moving 'UP'
-		for(int i = row - 1; i >= 0; i--)
+			int letter = Character.toUpperCase(name.charAt(letters)) - 'A';
+			if(letter < 0 || letter >= 26 || row > this.boardDimension)
+				return -1;
+			row = row * 26 + letter + 1;
+			letters++;
+		}//end while
+		if(letters == 0 || letters == name.length())
+			return -1;
+		row--;
+		//Digits only: Integer.parseInt would also take a sign or digits from other scripts
+		int col = 0;
+		for(int i = letters; i < name.length(); i++)
 		{
-			//'-' denotes an available/empty space
-			if(this.boardLayout[i][col] == '-')
-			{
-				availableSpaces.add(new Point(i, col));
-			}//end if
-			else
-			{
-				break;
-			}//end else
+			char digit = name.charAt(i);
+			if(digit < '0' || digit > '9' || col > this.boardDimension)
+				return -1;
+			col = col * 10 + digit - '0';
 		}//end for
-		
-		//Checks for availableSpaces moving 'RIGHT'
-		for(int i = col + 1; i < this.boardDimension; i++)
+		col--;
+		if(row < 0 || row >= this.boardDimension || col < 0 || col >= this.boardDimension)
+			return -1;
+		return row * this.boardDimension + col;
+	}//end parseSquare
+
+	public String formatSquare(int square)
+	{
+		return rowName(square / this.boardDimension) + (square % this.boardDimension + 1);
+	}//end formatSquare
+
+	//Rows are lettered like spreadsheet columns: A to Z, then AA, AB and so on
+	public static String rowName(int row)
+	{
+		String name = "";
+		for(int letters = row + 1; letters > 0; letters = (letters - 1) / 26)
+			name = (char)('A' + (letters - 1) % 26) + name;
+		return name;
+	}//end rowName
+
+	public boolean isBlocked(int row, int col)
+	{
+		if(this.rowBits != null)
+			return (this.rowBits[row] & (1L << col)) != 0;
+		return (this.occupied & (1L << (row * this.boardDimension + col))) != 0;
+	}//end isBlocked
+
+	//Number of moves made since the starting layout, every move burns the square it leaves
+	public int getMoveCount()
+	{
+		return this.boardDimension * this.boardDimension - countEmptySquares() - 2;
+	}//end getMoveCount
+
+	public int countEmptySquares()
+	{
+		if(this.rowBits == null)
+			return this.boardDimension * this.boardDimension - Long.bitCount(this.occupied);
+		int empty = this.boardDimension * this.boardDimension;
+		for(long row : this.rowBits)
+			empty -= Long.bitCount(row);
+		return empty;
+	}//end countEmptySquares
+
+	//'X' always moves first, so the burned squares tell whose turn it is
+	public char getSideToMove()
+	{
+		return getMoveCount() % 2 == 0 ? 'X' : 'O';
+	}//end getSideToMove
+
+	//Compact text form of the layout: rows from A down separated by '/', 'X' and 'O' for the players,
+	//'#' for a burned square and a number for a run of empty squares, e.g. "X7/8/8/8/8/8/8/7O" at the start
+	public String toPositionString()
+	{
+		StringBuilder position = new StringBuilder();
+		for(int row = 0; row < this.boardDimension; row++)
 		{
-			//'-' denotes an available/empty space
-			if(this.boardLayout[row][i] == '-')
-			{
-				availableSpaces.add(new Point(row, i));
-			}//end if
-			else
+			if(row > 0)
+				position.append('/');
+			int empty = 0;
+			for(int col = 0; col < this.boardDimension; col++)
 			{
-				break;
-			}//end else
+				int square = row * this.boardDimension + col;
+				if(!isBlocked(row, col))
+				{
+					empty++;
+					continue;
+				}//end if
+				if(empty > 0)
+					position.append(empty);
+				empty = 0;
+				position.append(square == this.xSquare ? 'X' : square == this.oSquare ? 'O' : '#');
+			}//end for
+			if(empty > 0)
+				position.append(empty);
 		}//end for
-		
-		//Checks for availableSpaces moving 'LEFT'
-		for(int i = col - 1; i >= 0; i--)
+		return position.toString();
+	}//end toPositionString
+
+	//Board for a toPositionString layout; the side to move follows from the number of burned squares
+	public static Board fromPositionString(String position)
+	{
+		String[] rows = position.trim().split("/");
+		Board board = new Board(rows.length, 'X');
+		board.unblock(board.xSquare);
+		board.unblock(board.oSquare);
+		board.xSquare = -1;
+		board.oSquare = -1;
+		for(int row = 0; row < rows.length; row++)
 		{
-			//'-' denotes an available/empty space
-			if(this.boardLayout[row][i] == '-')
-			{
-				availableSpaces.add(new Point(row, i));
-			}//end if
-			else
+			int col = 0;
+			int i = 0;
+			while(i < rows[row].length())
 			{
-				break;
-			}//end else
+				char cell = rows[row].charAt(i);
+				if(Character.isDigit(cell))
+				{
+					int end = i;
+					while(end < rows[row].length() && Character.isDigit(rows[row].charAt(end)))
+						end++;
+					col += Integer.parseInt(rows[row].substring(i, end));
+					i = end;
+					continue;
+				}//end if
+				if(col >= rows.length)
+					throw new IllegalArgumentException("Row " + (row + 1) + " of " + position + " has more than " + rows.length + " squares");
+				int square = row * rows.length + col;
+				boolean player = cell == 'X' || cell == 'x' || cell == 'O' || cell == 'o';
+				if(player && board.getSquare(Character.toUpperCase(cell)) >= 0)
+					throw new IllegalArgumentException("Position " + position + " has more than one '" + Character.toUpperCase(cell) + "'");
+				if(cell == 'X' || cell == 'x')
+					board.xSquare = square;
+				else if(cell == 'O' || cell == 'o')
+					board.oSquare = square;
+				else if(cell != '#')
+					throw new IllegalArgumentException("Unknown square '" + cell + "' in position " + position);
+				board.block(square);
+				col++;
+				i++;
+			}//end while
+			if(col != rows.length)
+				throw new IllegalArgumentException("Row " + (row + 1) + " of " + position + " does not have " + rows.length + " squares");
 		}//end for
-	}//end findULDRSpaces
-	
-	private void findDiagonalSpaces(ArrayList<Point> availableSpaces, Point currentPosition)
-	{
-		int row = (int)currentPosition.getX();
-		int col = (int)currentPosition.getY();
-		int diagonalDistance;
-		
-		//Checks for availableSpaces moving 'TOP LEFT'
-		diagonalDistance = (row > col ? col: row);
-		for(int i = 1; i <= diagonalDistance; i++)
+		if(board.xSquare < 0 || board.oSquare < 0)
+			throw new IllegalArgumentException("Position " + position + " needs one 'X' and one 'O'");
+
+		board.zobristKey = X_KEYS[board.xSquare] ^ O_KEYS[board.oSquare];
+		for(int square = 0; square < rows.length * rows.length; square++)
 		{
-			if(this.boardLayout[row - i][col - i] == '-')
-			{
-				availableSpaces.add(new Point(row - i, col - i));
-			}//end if
-			else
-			{
-				break;
-			}//end else
+			if(board.isBlocked(square / rows.length, square % rows.length))
+				board.zobristKey ^= OCCUPIED_KEYS[square];
 		}//end for
-		
-		//Checks for availableSpaces moving 'TOP RIGHT'
-		diagonalDistance = (row > this.boardDimension - col - 1 ? this.boardDimension - col - 1: row);
-		for(int i = 1; i <= diagonalDistance; i++)
+		return board;
+	}//end fromPositionString
+
+	//Position key including whose turn it is, used by the transposition table
+	public long getHashKey(char sideToMove)
+	{
+		return sideToMove == 'X' ? this.zobristKey : this.zobristKey ^ SIDE_KEY;
+	}//end getHashKey
+
+	//Key of the image of this position under transform; transform 0 gives getHashKey(sideToMove)
+	public long getSymmetricKey(char sideToMove, int transform)
+	{
+		int[] map = squareMap(this.boardDimension)[transform & 7];
+		return occupiedKey(map) ^ playerKey(map, sideToMove, transform);
+	}//end getSymmetricKey
+
+	//The transform taking this position to its canonical image, the image with the smallest key.
+	//All symmetric images of a position share one canonical image, so its key can stand for every one of them.
+	public int getCanonicalTransform(char sideToMove)
+	{
+		int[][] maps = squareMap(this.boardDimension);
+		int best = 0;
+		long bestKey = 0;
+		for(int t = 0; t < Symmetry.TRANSFORMS; t++)
 		{
-			if(this.boardLayout[row - i][col + i] == '-')
+			long occupiedKey = occupiedKey(maps[t]);
+			for(int transform = t; transform < TRANSFORMS; transform += SWAP_COLOURS)
 			{
-				availableSpaces.add(new Point(row - i, col + i));
-			}//end if
-			else
-			{
-				break;
-			}//end else
+				long key = occupiedKey ^ playerKey(maps[t], sideToMove, transform);
+				if(transform == 0 || key < bestKey)
+				{
+					best = transform;
+					bestKey = key;
+				}//end if
+			}//end for
 		}//end for
-		
-		//Checks for availableSpaces moving 'BOTTOM LEFT'
-		diagonalDistance = (this.boardDimension - row - 1 < col ? this.boardDimension - row - 1: col);
-		for(int i = 1; i <= diagonalDistance; i++)
+		return best;
+	}//end getCanonicalTransform
+
+	//Where square lands in the image under transform; swapping colours leaves the squares in place
+	public int transformSquare(int square, int transform)
+	{
+		return squareMap(this.boardDimension)[transform & 7][square];
+	}//end transformSquare
+
+	//The square whose image under transform is square, e.g. to play a move found for the canonical image
+	public int untransformSquare(int square, int transform)
+	{
+		return squareMap(this.boardDimension)[Symmetry.inverse(transform & 7)][square];
+	}//end untransformSquare
+
+	//Zobrist key of the blocked squares moved through map
+	private long occupiedKey(int[] map)
+	{
+		long key = 0;
+		if(this.rowBits == null)
 		{
-			if(this.boardLayout[row + i][col - i] == '-')
-			{
-				availableSpaces.add(new Point(row + i, col - i));
-			}//end if
-			else
-			{
-				break;
-			}//end else
+			for(long bits = this.occupied; bits != 0; bits &= bits - 1)
+				key ^= OCCUPIED_KEYS[map[Long.numberOfTrailingZeros(bits)]];
+			return key;
+		}//end if
+		for(int row = 0; row < this.boardDimension; row++)
+		{
+			for(long bits = this.rowBits[row]; bits != 0; bits &= bits - 1)
+				key ^= OCCUPIED_KEYS[map[row * this.boardDimension + Long.numberOfTrailingZeros(bits)]];
 		}//end for
-		
-		//Checks for availableSpaces moving 'BOTTOM RIGHT'
-		diagonalDistance = (this.boardDimension - row - 1 < this.boardDimension - col - 1 
-							? this.boardDimension - row - 1: this.boardDimension - col - 1);
-		for(int i = 1; i <= diagonalDistance; i++)
+		return key;
+	}//end occupiedKey
+
+	private long playerKey(int[] map, char sideToMove, int transform)
+	{
+		if((transform & SWAP_COLOURS) == 0)
+			return X_KEYS[map[this.xSquare]] ^ O_KEYS[map[this.oSquare]] ^ (sideToMove == 'X' ? 0 : SIDE_KEY);
+		return X_KEYS[map[this.oSquare]] ^ O_KEYS[map[this.xSquare]] ^ (sideToMove == 'X' ? SIDE_KEY : 0);
+	}//end playerKey
+
+	//Square numbers under each of Symmetry's eight transforms, built once per dimension
+	private static synchronized int[][] squareMap(int dimension)
+	{
+		if(SQUARE_MAPS[dimension] != null)
+			return SQUARE_MAPS[dimension];
+
+		int[][] maps = new int[Symmetry.TRANSFORMS][dimension * dimension];
+		for(int transform = 0; transform < Symmetry.TRANSFORMS; transform++)
 		{
-			if(this.boardLayout[row + i][col + i] == '-')
-			{
-				availableSpaces.add(new Point(row + i, col + i));
-			}//end if
-			else
-			{
-				break;
-			}//end else
+			for(int square = 0; square < dimension * dimension; square++)
+				maps[transform][square] = Symmetry.transformSquare(square, transform, dimension);
 		}//end for
-	}//findDiagonalSpaces
-	
-	public void setAvailableSpaces(ArrayList<Point> availSpaces)
-	{
-		this.availableSpaces = availSpaces;
-	}//end setAvailableSpaces()
-	
-	public ArrayList<Point> getAvailableSpaces()
-	{
-		return this.availableSpaces;
-	}//end getAvailableSpaces
-	
-	public void clearAvailableSpaces()
-	{
-		this.availableSpaces.clear();
-	}//end clearAvailableSpaces
-	
-	public Board getParent()
-	{
-		return this.parent;
-	}//end getParent
-	
-	public int getDepth()
-	{
-		return this.depth;
-	}//end getDepth
-	
+		SQUARE_MAPS[dimension] = maps;
+		return maps;
+	}//end squareMap
+
+	//Compact boards only
+	public long getOccupied()
+	{
+		requireCompact();
+		return this.occupied;
+	}//end getOccupied
+
+	//Builds the character grid ('-' empty, '#' burned, 'X'/'O' players) for display
 	public char[][] getBoardLayout()
 	{
-		return this.boardLayout;
+		char[][] boardLayout = new char[this.boardDimension][this.boardDimension];
+		for(int row = 0; row < this.boardDimension; row++)
+		{
+			for(int col = 0; col < this.boardDimension; col++)
+			{
+				boardLayout[row][col] = isBlocked(row, col) ? '#' : '-';
+			}//end inner for
+		}//end outer for
+		boardLayout[this.xSquare / this.boardDimension][this.xSquare % this.boardDimension] = 'X';
+		boardLayout[this.oSquare / this.boardDimension][this.oSquare % this.boardDimension] = 'O';
+		return boardLayout;
 	}//end getBoardLayout
-	
+
 	public int getBoardDimension()
 	{
 		return this.boardDimension;
 	}//ends getBoardDimension
-	
-	public boolean noMovesRemaining()
+
+	public boolean noMovesRemaining(char player)
 	{
-		return this.availableSpaces.size() == 0 ? true: false;
+		return countAvailableSpaces(player) == 0;
 	}//end noMovesRemaining
 
-}//end Board
\ No newline at end of file
+}//end Board
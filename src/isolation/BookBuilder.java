@@ -0,0 +1,141 @@
+package isolation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//Offline builder for the opening book.
+//Walks the opening tree from the standard start one ply at a time. Where the book's side is to move
+//only its deep-searched best move is followed; where the other side is to move every reply is followed.
+//This is done once with the book playing 'X' and once playing 'O'. Positions are told apart by their
+//canonical image, so rotations, reflections and colour swaps of a position are searched and stored once.
+//Usage: BookBuilder [plies] [search depth] [output file] [threads]
+public class BookBuilder
+{
+	private static final int DIMENSION = 8;
+
+	private int plies;
+	private int depth;
+	private int threads;
+	private TreeMap<Long, int[]> entries;//Sorted by key, {move, score}
+
+	public BookBuilder(int plies, int depth, int threads)
+	{
+		this.plies = plies;
+		this.depth = depth;
+		this.threads = threads;
+		this.entries = new TreeMap<Long, int[]>();
+	}//end Constructor
+
+	public static void main(String[] args) throws IOException, InterruptedException, ExecutionException
+	{
+		int plies = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+		int depth = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		Path file = Paths.get(args.length > 2 ? args[2] : OpeningBook.DEFAULT_FILE);
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+		BookBuilder builder = new BookBuilder(plies, depth, threads);
+		builder.build('X');
+		builder.build('O');
+		builder.write(file);
+		System.out.println("Wrote " + builder.entries.size() + " positions to " + file);
+	}//end main
+
+	//Expands the tree for the side the book plays, searching that side's positions in parallel
+	public void build(char bookSide) throws InterruptedException, ExecutionException
+	{
+		ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+		ThreadLocal<Adversarial[]> engines = ThreadLocal.withInitial(() -> new Adversarial[] {
+				new Adversarial(0, 'X', 'O'), new Adversarial(0, 'O', 'X')});
+		try {
+			List<Board> level = new ArrayList<Board>();
+			level.add(new Board(DIMENSION, 'X'));
+			for(int ply = 0; ply < this.plies && !level.isEmpty(); ply++)
+			{
+				char toMove = ply % 2 == 0 ? 'X' : 'O';
+				char other = toMove == 'X' ? 'O' : 'X';
+				HashSet<Long> seen = new HashSet<Long>();
+				List<Board> next = new ArrayList<Board>();
+
+				if(toMove == bookSide)
+				{
+					level.removeIf(position -> position.countAvailableSpaces(toMove) == 0);//Game over, nothing to store
+					List<Future<int[]>> results = new ArrayList<Future<int[]>>();
+					for(Board position : level)
+					{
+						results.add(pool.submit(() -> {
+							Adversarial engine = engines.get()[toMove == 'X' ? 0 : 1];
+							int move = position.toSquare(engine.fixedDepthSearch(position, this.depth));
+							return new int[] {move, engine.getBestValue()};
+						}));
+					}//end for
+					for(int i = 0; i < level.size(); i++)
+					{
+						Board position = level.get(i);
+						int[] result = results.get(i).get();
+						int transform = position.getCanonicalTransform(toMove);
+						this.entries.put(position.getSymmetricKey(toMove, transform),
+								new int[] {position.transformSquare(result[0], transform), result[1]});
+						Board child = new Board(position);
+						child.makeMove(toMove, result[0]);
+						if(seen.add(canonicalKey(child, other)))
+							next.add(child);
+					}//end for
+				}//end if
+				else
+				{
+					int[] moves = new int[DIMENSION * DIMENSION];
+					for(Board position : level)
+					{
+						int count = position.generateMoves(toMove, moves);
+						for(int i = 0; i < count; i++)
+						{
+							Board child = new Board(position);
+							child.makeMove(toMove, moves[i]);
+							//Different move orders and symmetric moves reach the same position, it only needs one search
+							if(seen.add(canonicalKey(child, other)))
+								next.add(child);
+						}//end for
+					}//end for
+				}//end else
+				System.out.println("Book for " + bookSide + ": ply " + (ply + 1) + " of " + this.plies + ", "
+						+ next.size() + " positions");
+				level = next;
+			}//end for
+		}//end try
+		finally {
+			pool.shutdownNow();
+		}//end finally
+	}//end build
+
+	private static long canonicalKey(Board position, char toMove)
+	{
+		return position.getSymmetricKey(toMove, position.getCanonicalTransform(toMove));
+	}//end canonicalKey
+
+	public void write(Path file) throws IOException
+	{
+		int count = this.entries.size();
+		long[] keys = new long[count];
+		int[] moves = new int[count];
+		int[] scores = new int[count];
+		int i = 0;
+		for(Map.Entry<Long, int[]> entry : this.entries.entrySet())
+		{
+			keys[i] = entry.getKey();
+			moves[i] = entry.getValue()[0];
+			scores[i] = entry.getValue()[1];
+			i++;
+		}//end for
+		OpeningBook.write(file, DIMENSION, keys, moves, scores, count);
+	}//end write
+}//end BookBuilder
@@ -0,0 +1,159 @@
+package isolation;
+
+import java.util.Arrays;
+
+//Exact longest path for a player walled off in its own region.
+//Once the players are separated, the one who can make more moves wins, so each side's longest
+//sequence of queen moves through its region settles the game without any heuristic.
+public class EndgameSolver
+{
+	public static final int UNKNOWN = -1;//Returned when the node limit ran out before the answer was proven
+	private static final int DEFAULT_MEMO_BITS = 18;
+
+	//Memo of finished subproblems, keyed by the reachable empty squares and the square the player stands on
+	private long[] memoRegions;
+	private int[] memoEntries;//((square + 1) << 8) | longest path, 0 when the slot is unused
+	private int memoMask;
+
+	private long[][] rays;
+	private int dimension;
+	private long nodes;
+	private long nodeLimit;
+	private TimeManager clock;//Polled every TimeManager.POLL_INTERVAL nodes, null when only the node limit applies
+	private boolean aborted;
+
+	public EndgameSolver()
+	{
+		this(DEFAULT_MEMO_BITS);
+	}//end Default Constructor
+
+	public EndgameSolver(int memoBits)
+	{
+		this.memoRegions = new long[1 << memoBits];
+		this.memoEntries = new int[1 << memoBits];
+		this.memoMask = (1 << memoBits) - 1;
+	}//end Constructor
+
+	//Most moves player can still make on layout, or UNKNOWN if it takes more than nodeLimit positions to prove
+	//or clock reaches its hard limit first (clock may be null).
+	//The search stops at target moves, so any result of at least target only means "at least target".
+	public int longestPath(Board layout, char player, long nodeLimit, int target, TimeManager clock)
+	{
+		start(layout, nodeLimit, clock);
+		int length = search(layout.getSquare(player), layout.findRegion(player), target);
+		return this.aborted ? UNKNOWN : length;
+	}//end longestPath
+
+	public int longestPath(Board layout, char player, long nodeLimit, int target)
+	{
+		return longestPath(layout, player, nodeLimit, target, null);
+	}//end longestPath
+
+	public int longestPath(Board layout, char player, long nodeLimit)
+	{
+		return longestPath(layout, player, nodeLimit, Integer.MAX_VALUE, null);
+	}//end longestPath
+
+	public int longestPath(Board layout, char player, long nodeLimit, TimeManager clock)
+	{
+		return longestPath(layout, player, nodeLimit, Integer.MAX_VALUE, clock);
+	}//end longestPath
+
+	//Exact longest path from square through the empty squares of region on a board of the given dimension,
+	//used when the region does not come from a real position (the tablebase generator)
+	int longestPath(int dimension, int square, long region)
+	{
+		start(Board.rayTable(dimension), dimension, Long.MAX_VALUE, null);
+		return search(square, region, Integer.MAX_VALUE);
+	}//end longestPath
+
+	//First move of a path of at least target moves for player (or of the longest path when there is none),
+	//or TranspositionTable.NO_MOVE if it could not be proven within nodeLimit positions before clock's hard limit
+	public int bestMove(Board layout, char player, long nodeLimit, int target, TimeManager clock)
+	{
+		start(layout, nodeLimit, clock);
+		long region = layout.findRegion(player);
+		long moves = Board.queenMoves(this.rays, layout.getSquare(player), ~region);
+		int bestMove = TranspositionTable.NO_MOVE;
+		int bestLength = -1;
+		while(moves != 0 && !this.aborted && bestLength < target)
+		{
+			int move = Long.numberOfTrailingZeros(moves);
+			moves &= moves - 1;
+			int length = 1 + search(move, region & ~(1L << move), target - 1);
+			if(length > bestLength)
+			{
+				bestLength = length;
+				bestMove = move;
+			}//end if
+		}//end while
+		return this.aborted ? TranspositionTable.NO_MOVE : bestMove;
+	}//end bestMove
+
+	public int bestMove(Board layout, char player, long nodeLimit, int target)
+	{
+		return bestMove(layout, player, nodeLimit, target, null);
+	}//end bestMove
+
+	private void start(Board layout, long nodeLimit, TimeManager clock)
+	{
+		start(layout.getRays(), layout.getBoardDimension(), nodeLimit, clock);
+	}//end start
+
+	private void start(long[][] rays, int dimension, long nodeLimit, TimeManager clock)
+	{
+		this.rays = rays;
+		if(this.dimension != dimension)
+		{
+			//Memo keys are square numbers, which mean something else on another board size
+			Arrays.fill(this.memoEntries, 0);
+			this.dimension = dimension;
+		}//end if
+		this.nodes = 0;
+		this.nodeLimit = nodeLimit;
+		this.clock = clock;
+		this.aborted = false;
+	}//end start
+
+	//Only finished answers go in the memo, a search stopped early at target is just a lower bound
+	private int search(int square, long empty, int target)
+	{
+		if(++this.nodes > this.nodeLimit || ((this.nodes & (TimeManager.POLL_INTERVAL - 1)) == 0
+				&& this.clock != null && this.clock.hardLimitReached()))
+		{
+			this.aborted = true;
+			return 0;
+		}//end if
+		//Squares cut off from here can never be used, dropping them lets more positions share a memo entry
+		long region = Board.floodFill(square, empty, this.dimension);
+		if(region == 0)
+			return 0;
+
+		int slot = (int)((region * 0x9E3779B97F4A7C15L + square) >>> 40) & this.memoMask;
+		int entry = this.memoEntries[slot];
+		if(this.memoRegions[slot] == region && (entry >>> 8) == square + 1)
+			return entry & 0xFF;
+
+		//No path can be longer than the number of squares left to visit
+		int bound = Long.bitCount(region);
+		long moves = Board.queenMoves(this.rays, square, ~region);
+		int best = 0;
+		while(moves != 0 && best < bound && best < target)
+		{
+			int move = Long.numberOfTrailingZeros(moves);
+			moves &= moves - 1;
+			int length = 1 + search(move, region & ~(1L << move), target - 1);
+			if(this.aborted)
+				return 0;
+			if(length > best)
+				best = length;
+		}//end while
+
+		if(best < target || best == bound)
+		{
+			this.memoRegions[slot] = region;
+			this.memoEntries[slot] = ((square + 1) << 8) | best;
+		}//end if
+		return best;
+	}//end search
+}//end EndgameSolver
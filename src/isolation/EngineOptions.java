@@ -0,0 +1,224 @@
+package isolation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+
+//One engine configuration, written as comma separated key=value pairs, e.g. "name=fast,time=200,threads=2".
+//Keys: name, engine (alphabeta, mcts or hybrid), time (milliseconds per move),
+//depth (fixed depth instead of a clock, 0 for none; thousands of playouts for mcts), threads,
+//hash (megabytes from 1 to MAX_HASH_SIZE_MB, the node arena for mcts), switch (share of empty squares below which hybrid uses alpha-beta),
+//lmr and futility (true or false, alpha-beta's late move reductions and futility pruning),
+//book, tablebase and weights (files, shared by every engine made from these options, used by alpha-beta only).
+//The weights file is read as soon as it is set, so a bad one is refused there and the weights already set are kept.
+public class EngineOptions
+{
+	public static final int MAX_HASH_SIZE_MB = 4096;
+
+	private String name;
+	private String engine;
+	private long moveTimeMillis;
+	private int depth;
+	private int threads;
+	private int hashSizeMB;
+	private double switchShare;
+	private boolean lateMoveReductions;
+	private boolean futilityPruning;
+	private String bookFile;
+	private String tablebaseFile;
+	private String weightsFile;
+	private OpeningBook book;//Opened once, the first time an engine needs it
+	private RegionTablebase tablebase;
+	private EvaluationWeights weights;//Read when weightsFile is set
+
+	public EngineOptions()
+	{
+		this.name = "engine";
+		this.engine = "alphabeta";
+		this.moveTimeMillis = 1000;
+		this.depth = 0;
+		this.threads = 1;
+		this.hashSizeMB = Adversarial.DEFAULT_HASH_SIZE_MB;
+		this.switchShare = HybridEngine.DEFAULT_SWITCH;
+		this.lateMoveReductions = false;
+		this.futilityPruning = true;
+	}//end Constructor
+
+	public static EngineOptions parse(String spec)
+	{
+		EngineOptions options = new EngineOptions();
+		for(String pair : spec.split(","))
+		{
+			if(pair.trim().isEmpty())
+				continue;
+			int equals = pair.indexOf('=');
+			if(equals < 0)
+				throw new IllegalArgumentException("Engine option " + pair + " is not key=value");
+			options.set(pair.substring(0, equals).trim(), pair.substring(equals + 1).trim());
+		}//end for
+		return options;
+	}//end parse
+
+	//Sets one option by its spec key
+	public void set(String key, String value)
+	{
+		switch(key)
+		{
+			case "name": this.name = value; break;
+			case "engine":
+				if(!value.equals("alphabeta") && !value.equals("mcts") && !value.equals("hybrid"))
+					throw new IllegalArgumentException("Unknown engine " + value);
+				this.engine = value;
+				break;
+			case "time": this.moveTimeMillis = Long.parseLong(value); break;
+			case "depth": this.depth = Integer.parseInt(value); break;
+			case "threads": this.threads = Integer.parseInt(value); break;
+			case "hash": this.hashSizeMB = parseRange(key, value, 1, MAX_HASH_SIZE_MB); break;
+			case "switch": this.switchShare = Double.parseDouble(value); break;
+			case "lmr": this.lateMoveReductions = parseSwitch(key, value); break;
+			case "futility": this.futilityPruning = parseSwitch(key, value); break;
+			case "book": this.bookFile = value; break;
+			case "tablebase": this.tablebaseFile = value; break;
+			case "weights":
+				this.weights = readWeights(value);
+				this.weightsFile = value;
+				break;
+			default: throw new IllegalArgumentException("Unknown engine option " + key);
+		}//end switch
+	}//end set
+
+	private static boolean parseSwitch(String key, String value)
+	{
+		if(!value.equals("true") && !value.equals("false"))
+			throw new IllegalArgumentException(key + " is true or false, not " + value);
+		return value.equals("true");
+	}//end parseSwitch
+
+	private static int parseRange(String key, String value, int min, int max)
+	{
+		int number = Integer.parseInt(value);
+		if(number < min || number > max)
+			throw new IllegalArgumentException(key + " is from " + min + " to " + max + ", not " + value);
+		return number;
+	}//end parseRange
+
+	//A new engine playing computer with these options
+	public SearchEngine createEngine(char computer)
+	{
+		SearchEngine engine;
+		switch(this.engine)
+		{
+			case "mcts": engine = new MonteCarloSearch(0, computer, computer == 'X' ? 'O' : 'X', this.hashSizeMB); break;
+			case "hybrid":
+				engine = new HybridEngine(new MonteCarloSearch(0, computer, computer == 'X' ? 'O' : 'X', this.hashSizeMB),
+						createAlphaBeta(computer), this.switchShare);
+				break;
+			default: engine = createAlphaBeta(computer);
+		}//end switch
+		engine.setMoveTimeMillis(this.moveTimeMillis);
+		engine.setThreadCount(this.threads);
+		return engine;
+	}//end createEngine
+
+	private Adversarial createAlphaBeta(char computer)
+	{
+		Adversarial engine = new Adversarial(0, computer, computer == 'X' ? 'O' : 'X', this.hashSizeMB);
+		engine.setOpeningBook(openBook());
+		engine.setTablebase(openTablebase());
+		engine.setLateMoveReductions(this.lateMoveReductions);
+		engine.setFutilityPruning(this.futilityPruning);
+		if(this.weights != null)
+			engine.setWeights(this.weights);
+		return engine;
+	}//end createAlphaBeta
+
+	//Square engine moves to under these options' limits: a fixed depth if one is set, the move time otherwise
+	public int chooseMove(SearchEngine engine, Board layout, int turnCount)
+	{
+		if(this.depth > 0)
+			return engine.searchFixed(layout, this.depth).getSquare();
+		return engine.search(layout, turnCount).getSquare();
+	}//end chooseMove
+
+	private synchronized OpeningBook openBook()
+	{
+		if(this.book == null && this.bookFile != null)
+		{
+			try {
+				this.book = OpeningBook.open(Paths.get(this.bookFile));
+			}
+			catch(IOException e) {
+				throw new UncheckedIOException("Cannot open book " + this.bookFile, e);
+			}
+		}//end if
+		return this.book;
+	}//end openBook
+
+	private synchronized RegionTablebase openTablebase()
+	{
+		if(this.tablebase == null && this.tablebaseFile != null)
+		{
+			try {
+				this.tablebase = RegionTablebase.open(Paths.get(this.tablebaseFile));
+			}
+			catch(IOException e) {
+				throw new UncheckedIOException("Cannot open tablebase " + this.tablebaseFile, e);
+			}
+		}//end if
+		return this.tablebase;
+	}//end openTablebase
+
+	private static EvaluationWeights readWeights(String file)
+	{
+		try {
+			return EvaluationWeights.load(Paths.get(file));
+		}
+		catch(NoSuchFileException e) {
+			throw new IllegalArgumentException("Cannot read weights " + file + ": no such file", e);
+		}
+		catch(IOException e) {
+			throw new IllegalArgumentException("Cannot read weights " + file + ": " + e.getMessage(), e);
+		}
+	}//end readWeights
+
+	public String getName()
+	{
+		return this.name;
+	}//end getName
+
+	public long getMoveTimeMillis()
+	{
+		return this.moveTimeMillis;
+	}//end getMoveTimeMillis
+
+	public int getDepth()
+	{
+		return this.depth;
+	}//end getDepth
+
+	public int getThreads()
+	{
+		return this.threads;
+	}//end getThreads
+
+	//Back in spec form, so a report shows exactly what was played
+	public String toString()
+	{
+		String spec = "name=" + this.name + ",engine=" + this.engine + ",time=" + this.moveTimeMillis + ",depth=" + this.depth + ",threads=" + this.threads
+				+ ",hash=" + this.hashSizeMB;
+		if(this.engine.equals("hybrid"))
+			spec += ",switch=" + this.switchShare;
+		if(this.lateMoveReductions)
+			spec += ",lmr=true";
+		if(!this.futilityPruning)
+			spec += ",futility=false";
+		if(this.bookFile != null)
+			spec += ",book=" + this.bookFile;
+		if(this.tablebaseFile != null)
+			spec += ",tablebase=" + this.tablebaseFile;
+		if(this.weightsFile != null)
+			spec += ",weights=" + this.weightsFile;
+		return spec;
+	}//end toString
+}//end EngineOptions
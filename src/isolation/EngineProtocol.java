@@ -0,0 +1,306 @@
+package isolation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+//Line based engine protocol on stdin/stdout, modelled on UCI, for programs that drive the engine.
+//Nothing is rendered; every reply is one line.
+//  uci                                   -> id lines, option lines, uciok
+//  isready                               -> readyok
+//  setoption name <Engine|Threads|Hash|Switch|LMR|Futility|Book|Tablebase|Weights> value <v>   (see EngineOptions)
+//  ucinewgame                            forget the hash tables
+//  position startpos [size <n>] [moves <A1> <B2> ...]
+//  position board <position string> [moves ...]   (see Board.toPositionString)
+//  go movetime <ms> | go depth <n> | go infinite   -> info line, then bestmove <square> (or bestmove none)
+//                                        for Engine mcts the depth counts thousands of playouts
+//  stop                                  end the current search, which still answers with bestmove
+//Other commands sent during a timed or fixed depth search wait for it to finish; an infinite one is stopped.
+//  display                               -> position line with the current position string
+//  quit
+//A command that fails is answered with "info string error <message>" and the engine carries on; a go that fails still
+//sends a bestmove, with any legal move.
+public class EngineProtocol
+{
+	private BufferedReader input;
+	private PrintStream output;
+	private EngineOptions options;
+	private SearchEngine[] engines;//[0] plays 'X', [1] plays 'O', made again when the options change
+	private Board position;
+	private Thread searchThread;
+	private SearchEngine searching;
+	private boolean infinite;//The running search only ends on stop
+
+	public EngineProtocol(InputStream in, PrintStream out)
+	{
+		this.input = new BufferedReader(new InputStreamReader(in));
+		this.output = out;
+		this.options = new EngineOptions();
+		this.position = new Board(8, 'X');
+	}//end Constructor
+
+	//Reads commands until quit or the end of the input.
+	//At the end of the input a timed or fixed depth search still finishes and sends its bestmove.
+	public void run() throws IOException
+	{
+		String line;
+		boolean quit = false;
+		while(!quit && (line = this.input.readLine()) != null)
+		{
+			String[] words = line.trim().split("\\s+");
+			if(words[0].isEmpty())
+				continue;
+			//A bad command or option is reported, the engine keeps reading
+			try {
+				quit = !execute(words);
+			}
+			catch(RuntimeException e) {
+				send("info string error " + describe(e));
+			}
+		}//end while
+		if(quit)
+			stopSearch();
+		else
+			waitForSearch();
+		if(this.engines != null)
+		{
+			this.engines[0].shutdown();
+			this.engines[1].shutdown();
+		}//end if
+	}//end run
+
+	//Runs one command, returns false once the engine should exit
+	private boolean execute(String[] words)
+	{
+		switch(words[0])
+		{
+			case "uci":
+				send("id name Isolation-Game-Agent");
+				send("option name Engine type combo default alphabeta var alphabeta var mcts var hybrid");
+				send("option name Threads type spin default 1 min 1 max 256");
+				send("option name Hash type spin default " + Adversarial.DEFAULT_HASH_SIZE_MB + " min 1 max " + EngineOptions.MAX_HASH_SIZE_MB);
+				send("option name Switch type string default " + HybridEngine.DEFAULT_SWITCH);
+				send("option name LMR type check default false");
+				send("option name Futility type check default true");
+				send("option name Book type string default <empty>");
+				send("option name Tablebase type string default <empty>");
+				send("option name Weights type string default <empty>");
+				send("uciok");
+				break;
+			case "isready":
+				send("readyok");
+				break;
+			case "setoption":
+				waitForSearch();
+				setOption(words);
+				break;
+			case "ucinewgame":
+				waitForSearch();
+				if(this.engines != null)
+				{
+					this.engines[0].newGame();
+					this.engines[1].newGame();
+				}//end if
+				break;
+			case "position":
+				waitForSearch();
+				this.position = parsePosition(words);
+				break;
+			case "go":
+				waitForSearch();
+				go(words);
+				break;
+			case "stop":
+				stopSearch();
+				break;
+			case "display":
+				send("position " + this.position.toPositionString() + " " + this.position.getSideToMove());
+				break;
+			case "quit":
+				return false;
+			default:
+				send("info string unknown command " + words[0]);
+		}//end switch
+		return true;
+	}//end execute
+
+	private void setOption(String[] words)
+	{
+		int value = indexOf(words, "value");
+		if(words.length < 3 || !words[1].equals("name") || value < 0)
+			throw new IllegalArgumentException("setoption name <name> value <value>");
+		//Option names are the EngineOptions keys, only capitalised
+		String name = String.join(" ", Arrays.copyOfRange(words, 2, value)).toLowerCase();
+		String setting = String.join(" ", Arrays.copyOfRange(words, value + 1, words.length));
+		this.options.set(name, setting);
+		if(this.engines != null)
+		{
+			this.engines[0].shutdown();
+			this.engines[1].shutdown();
+			this.engines = null;//Made again with the new options on the next search
+		}//end if
+	}//end setOption
+
+	private Board parsePosition(String[] words)
+	{
+		int moves = indexOf(words, "moves");
+		int end = moves < 0 ? words.length : moves;
+		Board board;
+		if(words.length > 1 && words[1].equals("startpos"))
+		{
+			int size = indexOf(words, "size");
+			board = new Board(size > 0 && size + 1 < end ? Integer.parseInt(words[size + 1]) : 8, 'X');
+		}//end if
+		else if(words.length > 2 && words[1].equals("board"))
+			board = Board.fromPositionString(words[2]);
+		else
+			throw new IllegalArgumentException("position startpos|board <position> [moves ...]");
+
+		for(int i = moves + 1; moves >= 0 && i < words.length; i++)
+		{
+			char side = board.getSideToMove();
+			int square = board.parseSquare(words[i]);
+			if(!board.isLegalMove(side, square))
+				throw new IllegalArgumentException(words[i] + " is not a legal move for " + side);
+			board.makeMove(side, square);
+		}//end for
+		return board;
+	}//end parsePosition
+
+	//Every go is answered with a bestmove, even when the engine cannot be made or the search fails,
+	//so the driver is never left waiting; the error itself goes out as an info string first
+	private void go(String[] words)
+	{
+		try {
+			startSearch(words);
+		}
+		catch(RuntimeException e) {
+			this.infinite = false;
+			send("info string error " + describe(e));
+			send("bestmove " + firstMove(this.position, this.position.getSideToMove()));
+		}
+	}//end go
+
+	//Starts the search on its own thread so stop and isready are still read while it runs
+	private void startSearch(String[] words)
+	{
+		if(this.engines == null)
+		{
+			SearchEngine x = this.options.createEngine('X');
+			try {
+				this.engines = new SearchEngine[] {x, this.options.createEngine('O')};
+			}
+			catch(RuntimeException e) {
+				x.shutdown();
+				throw e;
+			}
+		}//end if
+		Board board = new Board(this.position);
+		char side = board.getSideToMove();
+		SearchEngine engine = this.engines[side == 'X' ? 0 : 1];
+		int movetime = indexOf(words, "movetime");
+		int depth = indexOf(words, "depth");
+		this.infinite = indexOf(words, "infinite") > 0;
+		int fixedDepth = depth > 0 && depth + 1 < words.length ? Integer.parseInt(words[depth + 1]) : this.infinite ? Integer.MAX_VALUE : 0;
+		if(movetime > 0 && movetime + 1 < words.length)
+			engine.setMoveTimeMillis(Long.parseLong(words[movetime + 1]));
+		else
+			engine.setMoveTimeMillis(this.options.getMoveTimeMillis());
+
+		this.searching = engine;
+		this.searchThread = new Thread(() -> {
+			String bestMove = null;
+			try {
+				if(board.countAvailableSpaces(side) > 0)
+				{
+					SearchStats stats = fixedDepth > 0 ? engine.searchFixed(board, fixedDepth) : engine.search(board, board.getMoveCount());
+					send("info depth " + stats.getDepth() + " score " + stats.getScore() + " nodes " + stats.getNodes()
+							+ " nps " + stats.getNodesPerSecond() + " time " + stats.getElapsedNanos() / 1000000L + " source " + stats.getSource());
+					bestMove = board.formatSquare(stats.getSquare());
+				}//end if
+			}
+			catch(RuntimeException e) {
+				send("info string error " + describe(e));
+			}
+			finally {
+				send("bestmove " + (bestMove != null ? bestMove : firstMove(board, side)));
+			}
+		}, "isolation-protocol-search");
+		this.searchThread.setDaemon(true);
+		this.searchThread.start();
+	}//end startSearch
+
+	//Commands that change the position or options let a running search finish first,
+	//so a driver can send a whole game down the pipe without waiting for each bestmove
+	private void waitForSearch()
+	{
+		if(this.infinite)
+		{
+			stopSearch();
+			return;
+		}//end if
+		if(this.searchThread == null)
+			return;
+		try {
+			this.searchThread.join();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.searchThread = null;
+	}//end waitForSearch
+	
+	//Stops any running search and waits for its bestmove. The stop is repeated until the thread ends,
+	//one sent before the search had started its clock would otherwise be forgotten.
+	private void stopSearch()
+	{
+		if(this.searchThread == null)
+			return;
+		while(this.searchThread.isAlive())
+		{
+			this.searching.stop();
+			try {
+				this.searchThread.join(10);
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}//end while
+		this.searchThread = null;
+	}//end stopSearch
+
+	//Any legal move, or none when the side to move is stuck
+	private static String firstMove(Board board, char side)
+	{
+		int[] moves = new int[board.countAvailableSpaces(side)];
+		if(moves.length == 0)
+			return "none";
+		board.generateMoves(side, moves);
+		return board.formatSquare(moves[0]);
+	}//end firstMove
+
+	private static String describe(RuntimeException e)
+	{
+		return e.getMessage() != null ? e.getMessage() : e.toString();
+	}//end describe
+
+	private static int indexOf(String[] words, String word)
+	{
+		for(int i = 0; i < words.length; i++)
+		{
+			if(words[i].equals(word))
+				return i;
+		}//end for
+		return -1;
+	}//end indexOf
+
+	private synchronized void send(String line)
+	{
+		this.output.println(line);
+		this.output.flush();
+	}//end send
+}//end EngineProtocol
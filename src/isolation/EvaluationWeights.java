@@ -0,0 +1,116 @@
+package isolation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+//Weights of the terms Adversarial.evaluateBoard adds up, each multiplied by its feature:
+//  mobility          moves the side to move has
+//  opponentMobility  moves the opponent has
+//  edge              board edges next to the side to move (0 to 2)
+//  blocked           burned squares in the side to move's window (see Adversarial.BLOCK_WINDOWS)
+//  opponentBlocked   burned squares in the opponent's window
+//The file written by WeightTuner has one "name=value" line per weight; lines starting with '#' are comments.
+public class EvaluationWeights
+{
+	public static final String DEFAULT_FILE = "isolation.weights";
+	public static final int FEATURE_COUNT = 5;
+	static final String[] NAMES = {"mobility", "opponentMobility", "edge", "blocked", "opponentBlocked"};
+	//The hand-set weights the evaluation has always used: x = 3, y = 1, z = 3 and ten for each edge
+	public static final EvaluationWeights ORIGINAL = new EvaluationWeights(new int[] {3, -1, -10, -3, 3});
+
+	private final int[] weights;//In NAMES order
+
+	public EvaluationWeights(int[] weights)
+	{
+		if(weights.length != FEATURE_COUNT)
+			throw new IllegalArgumentException("Expected " + FEATURE_COUNT + " weights, got " + weights.length);
+		this.weights = weights.clone();
+	}//end Constructor
+
+	//Weights from a file; any weight it leaves out keeps its ORIGINAL value
+	public static EvaluationWeights load(Path file) throws IOException
+	{
+		int[] weights = ORIGINAL.toArray();
+		int lineNumber = 0;
+		for(String line : Files.readAllLines(file, StandardCharsets.UTF_8))
+		{
+			lineNumber++;
+			line = line.trim();
+			if(line.isEmpty() || line.startsWith("#"))
+				continue;
+			int equals = line.indexOf('=');
+			int index = equals < 0 ? -1 : indexOf(line.substring(0, equals).trim());
+			if(index < 0)
+				throw new IOException(file + " line " + lineNumber + ": expected <weight>=<value>, got " + line);
+			try {
+				weights[index] = Integer.parseInt(line.substring(equals + 1).trim());
+			}
+			catch(NumberFormatException e) {
+				throw new IOException(file + " line " + lineNumber + ": " + line.substring(equals + 1).trim() + " is not a whole number");
+			}
+		}//end for
+		return new EvaluationWeights(weights);
+	}//end load
+
+	public void write(Path file, String comment) throws IOException
+	{
+		List<String> lines = new ArrayList<String>();
+		if(comment != null)
+			lines.add("#" + comment);
+		for(int i = 0; i < FEATURE_COUNT; i++)
+			lines.add(NAMES[i] + "=" + this.weights[i]);
+		Files.write(file, lines, StandardCharsets.UTF_8);
+	}//end write
+
+	private static int indexOf(String name)
+	{
+		for(int i = 0; i < FEATURE_COUNT; i++)
+		{
+			if(NAMES[i].equals(name))
+				return i;
+		}//end for
+		return -1;
+	}//end indexOf
+
+	public int getMobility()
+	{
+		return this.weights[0];
+	}//end getMobility
+
+	public int getOpponentMobility()
+	{
+		return this.weights[1];
+	}//end getOpponentMobility
+
+	public int getEdge()
+	{
+		return this.weights[2];
+	}//end getEdge
+
+	public int getBlocked()
+	{
+		return this.weights[3];
+	}//end getBlocked
+
+	public int getOpponentBlocked()
+	{
+		return this.weights[4];
+	}//end getOpponentBlocked
+
+	public int[] toArray()
+	{
+		return this.weights.clone();
+	}//end toArray
+
+	public String toString()
+	{
+		StringBuilder text = new StringBuilder();
+		for(int i = 0; i < FEATURE_COUNT; i++)
+			text.append(i > 0 ? "," : "").append(NAMES[i]).append('=').append(this.weights[i]);
+		return text.toString();
+	}//end toString
+}//end EvaluationWeights
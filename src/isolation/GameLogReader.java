@@ -0,0 +1,158 @@
+package isolation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//Reads a GameLogWriter log straight from memory-mapped pages, one game at a time:
+//  while(reader.next()) { ... reader.getMove(i) ... }
+//Nothing is allocated per game or per move; only getConfig makes a String. The file is mapped in windows,
+//so logs larger than one mapping can hold are read the same way. A partial record at the end is ignored, and so is
+//a record whose configuration or moves would run past its length: the log is taken to end before it.
+public class GameLogReader implements Closeable
+{
+	private static final long WINDOW_BYTES = 1L << 30;
+
+	private FileChannel channel;
+	private long size;
+	private MappedByteBuffer window;
+	private long windowStart;
+	private long nextGame;//File offset of the next record
+	private int game;//Offset of the current record's dimension byte within the window, -1 before the first
+	private int dimension;
+	private int result;
+	private int moveCount;
+	private int movesStart;//Offset of the first move within the window
+	private int moveBytes;
+
+	private GameLogReader(FileChannel channel) throws IOException
+	{
+		this.channel = channel;
+		this.size = channel.size();
+		this.nextGame = GameLogWriter.HEADER_BYTES;
+		this.game = -1;
+		map(0, GameLogWriter.HEADER_BYTES);
+	}//end Constructor
+
+	public static GameLogReader open(Path file) throws IOException
+	{
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			if(channel.size() < GameLogWriter.HEADER_BYTES)
+				throw new IOException(file + " is not a game log");
+			GameLogReader reader = new GameLogReader(channel);
+			if(reader.window.getInt(0) != GameLogWriter.MAGIC || reader.window.getInt(4) != GameLogWriter.VERSION)
+				throw new IOException(file + " is not a game log");
+			return reader;
+		}
+		catch(IOException e) {
+			channel.close();
+			throw e;
+		}
+	}//end open
+
+	//Whether file starts like a game log, for tools that read either a log or text
+	public static boolean isGameLog(Path file) throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if(channel.size() < GameLogWriter.HEADER_BYTES)
+				return false;
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, 4).getInt(0) == GameLogWriter.MAGIC;
+		}
+	}//end isGameLog
+
+	//Moves to the next game, returns false at the end of the log
+	public boolean next() throws IOException
+	{
+		if(this.nextGame + 4 > this.size)
+			return false;
+		ensureMapped(this.nextGame, 4);
+		int length = this.window.getInt((int)(this.nextGame - this.windowStart));
+		long start = this.nextGame + 4;
+		if(length < GameLogWriter.RECORD_HEADER_BYTES - 4 || start + length > this.size)
+			return false;//Cut short by a crash while it was written
+		ensureMapped(start, length);
+		int game = (int)(start - this.windowStart);
+		int dimension = this.window.get(game) & 0xFF;
+		int moveCount = this.window.getShort(game + 2) & 0xFFFF;
+		int configLength = this.window.getShort(game + 8);
+		int moveBytes = dimension <= GameLogWriter.MAX_BYTE_MOVE_DIMENSION ? 1 : 2;
+		//A record that does not hold what it claims was not written by GameLogWriter, so getMove could read past it
+		if(configLength < 0 || GameLogWriter.RECORD_HEADER_BYTES - 4 + configLength + (long)moveCount * moveBytes > length)
+			return false;
+		this.game = game;
+		this.dimension = dimension;
+		this.result = this.window.get(game + 1);
+		this.moveCount = moveCount;
+		this.movesStart = game + GameLogWriter.RECORD_HEADER_BYTES - 4 + configLength;
+		this.moveBytes = moveBytes;
+		this.nextGame = start + length;
+		return true;
+	}//end next
+
+	//Keeps [position, position + length) of the file inside the mapped window
+	private void ensureMapped(long position, int length) throws IOException
+	{
+		if(position >= this.windowStart && position + length <= this.windowStart + this.window.capacity())
+			return;
+		map(position, length);
+	}//end ensureMapped
+
+	private void map(long position, int length) throws IOException
+	{
+		long bytes = Math.min(this.size - position, Math.max(WINDOW_BYTES, length));
+		this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, position, bytes);
+		this.windowStart = position;
+	}//end map
+
+	public int getDimension()
+	{
+		return this.dimension;
+	}//end getDimension
+
+	public char getWinner()
+	{
+		return (this.result & GameLogWriter.O_WON) != 0 ? 'O' : 'X';
+	}//end getWinner
+
+	//The loser played an illegal move rather than running out of moves
+	public boolean isForfeit()
+	{
+		return (this.result & GameLogWriter.FORFEIT) != 0;
+	}//end isForfeit
+
+	public int getMoveCount()
+	{
+		return this.moveCount;
+	}//end getMoveCount
+
+	public long getMoveTimeMillis()
+	{
+		return this.window.getInt(this.game + 4);
+	}//end getMoveTimeMillis
+
+	public String getConfig()
+	{
+		byte[] bytes = new byte[this.window.getShort(this.game + 8)];
+		for(int i = 0; i < bytes.length; i++)
+			bytes[i] = this.window.get(this.game + 10 + i);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}//end getConfig
+
+	//Square of move i, 'X' making the even moves and 'O' the odd ones
+	public int getMove(int i)
+	{
+		if(this.moveBytes == 1)
+			return this.window.get(this.movesStart + i) & 0xFF;
+		return this.window.getShort(this.movesStart + 2 * i) & 0xFFFF;
+	}//end getMove
+
+	public void close() throws IOException
+	{
+		this.channel.close();
+	}//end close
+}//end GameLogReader
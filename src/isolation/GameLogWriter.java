@@ -0,0 +1,183 @@
+package isolation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//Append-only binary log of finished games, read back by GameLogReader.
+//File layout: an 8 byte header (magic, version) followed by one record per game:
+//  int    bytes in the rest of the record
+//  byte   board dimension
+//  byte   result: bit 0 set if 'O' won, bit 1 set if the loser forfeited with an illegal move
+//  short  number of moves
+//  int    move time in milliseconds
+//  short  length of the engine configuration, then the configuration in UTF-8
+//  moves  square numbers from the standard start, 'X' first: one byte each up to 16x16, two bytes on larger boards
+//A record is only ever written whole, so a crash can at worst leave a partial record at the end, which the reader ignores.
+//Games are buffered and written in batches; the file is synced every SYNC_GAMES games or SYNC_NANOS, whichever comes first.
+//A timer thread makes the SYNC_NANOS sync even when no further game arrives; if it fails, the next append, sync or close
+//throws its error.
+public class GameLogWriter implements Closeable
+{
+	public static final String DEFAULT_FILE = "isolation.games";
+	static final int MAGIC = 0x49534F47;//"ISOG"
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 8;
+	static final int RECORD_HEADER_BYTES = 14;//Everything before the configuration, the length included
+	static final int O_WON = 1;
+	static final int FORFEIT = 2;
+	static final int MAX_BYTE_MOVE_DIMENSION = 16;//Every square of a 16x16 board fits in a byte
+	private static final int SYNC_GAMES = 256;
+	private static final long SYNC_NANOS = 1000000000L;
+	private static final int BUFFER_BYTES = 1 << 16;
+
+	private FileChannel channel;
+	private ByteBuffer buffer;
+	private int unsynced;//Games written since the last sync
+	private long lastSync;
+	private ScheduledExecutorService timer;
+	private IOException timerFailure;//From a timed sync, not yet reported
+
+	private GameLogWriter(FileChannel channel)
+	{
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(BUFFER_BYTES);
+		this.lastSync = System.nanoTime();
+		this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "isolation-game-log-sync");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.timer.scheduleWithFixedDelay(this::timedSync, SYNC_NANOS, SYNC_NANOS, TimeUnit.NANOSECONDS);
+	}//end Constructor
+
+	//Opens the log for appending, creating it if it does not exist
+	public static GameLogWriter open(Path file) throws IOException
+	{
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+			if(channel.size() == 0)
+			{
+				header.putInt(MAGIC).putInt(VERSION).flip();
+				while(header.hasRemaining())
+					channel.write(header);
+			}//end if
+			else
+			{
+				while(header.hasRemaining() && channel.read(header, header.position()) > 0);
+				if(header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+					throw new IOException(file + " is not a game log");
+			}//end else
+			channel.position(channel.size());
+			return new GameLogWriter(channel);
+		}
+		catch(IOException e) {
+			channel.close();
+			throw e;
+		}
+	}//end open
+
+	//Appends one game played from the standard start. Safe to call from several threads.
+	public synchronized void append(int dimension, char winner, boolean forfeit, long moveTimeMillis, String config,
+			int[] moves, int moveCount) throws IOException
+	{
+		reportTimerFailure();
+		byte[] configBytes = config == null ? new byte[0] : config.getBytes(StandardCharsets.UTF_8);
+		int moveBytes = dimension <= MAX_BYTE_MOVE_DIMENSION ? 1 : 2;
+		int length = RECORD_HEADER_BYTES + configBytes.length + moveCount * moveBytes;
+		if(configBytes.length > Short.MAX_VALUE || moveCount > 0xFFFF)
+			throw new IllegalArgumentException("Game too long to log");
+		if(this.buffer.remaining() < length)
+		{
+			writeBuffer();
+			if(this.buffer.capacity() < length)
+				this.buffer = ByteBuffer.allocate(length);
+		}//end if
+		this.buffer.putInt(length - 4);
+		this.buffer.put((byte)dimension);
+		this.buffer.put((byte)((winner == 'O' ? O_WON : 0) | (forfeit ? FORFEIT : 0)));
+		this.buffer.putShort((short)moveCount);
+		this.buffer.putInt((int)Math.min(Integer.MAX_VALUE, moveTimeMillis));
+		this.buffer.putShort((short)configBytes.length);
+		this.buffer.put(configBytes);
+		for(int i = 0; i < moveCount; i++)
+		{
+			if(moveBytes == 1)
+				this.buffer.put((byte)moves[i]);
+			else
+				this.buffer.putShort((short)moves[i]);
+		}//end for
+		this.unsynced++;
+		if(this.unsynced >= SYNC_GAMES || System.nanoTime() - this.lastSync >= SYNC_NANOS)
+			sync();
+	}//end append
+
+	//Appends the game played on board, whose moves all start from the standard layout
+	public void append(Board board, char winner, boolean forfeit, long moveTimeMillis, String config) throws IOException
+	{
+		int[] moves = new int[board.getBoardDimension() * board.getBoardDimension()];
+		int count = board.getMoveHistory(moves);
+		append(board.getBoardDimension(), winner, forfeit, moveTimeMillis, config, moves, count);
+	}//end append
+
+	//Writes the buffered games and waits for them to reach the disk
+	public synchronized void sync() throws IOException
+	{
+		reportTimerFailure();
+		writeBuffer();
+		this.channel.force(false);
+		this.unsynced = 0;
+		this.lastSync = System.nanoTime();
+	}//end sync
+
+	//Syncs games that have waited SYNC_NANOS since the last sync with no append to do it
+	private synchronized void timedSync()
+	{
+		if(this.unsynced == 0 || this.timerFailure != null || !this.channel.isOpen()
+				|| System.nanoTime() - this.lastSync < SYNC_NANOS)
+			return;
+		try {
+			sync();
+		}
+		catch(IOException e) {
+			this.timerFailure = e;
+		}
+	}//end timedSync
+
+	private void reportTimerFailure() throws IOException
+	{
+		IOException failure = this.timerFailure;
+		this.timerFailure = null;
+		if(failure != null)
+			throw failure;
+	}//end reportTimerFailure
+
+	private void writeBuffer() throws IOException
+	{
+		this.buffer.flip();
+		while(this.buffer.hasRemaining())
+			this.channel.write(this.buffer);
+		this.buffer.clear();
+	}//end writeBuffer
+
+	public synchronized void close() throws IOException
+	{
+		if(!this.channel.isOpen())
+			return;
+		this.timer.shutdownNow();
+		try {
+			sync();
+		}
+		finally {
+			this.channel.close();
+		}
+	}//end close
+}//end GameLogWriter
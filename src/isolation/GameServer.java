@@ -0,0 +1,399 @@
+package isolation;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Many games at once over a local socket, one game per connection at a time. Commands and replies are lines:
+//  new [size <n>] [time <ms>] [computer X|O]   -> ok, then move <square> if the computer moves first
+//  move <square>                              -> move <square> (the computer's reply), gameover <winner> when a side is stuck
+//  position                                   -> position <position string> <side to move>
+//  quit
+//Errors are answered with "error <reason>".
+//A session only holds its board and a few settings while it waits for its opponent, so thousands can sit idle.
+//Sessions run on virtual threads where the runtime has them and on small platform threads where it does not.
+//The searches themselves run on a fixed pool of CPU workers, each keeping its own engines. Waiting searches are
+//taken earliest deadline first, and a move's time limit counts from when its request arrived, so a busy server
+//shortens every game's thinking time a little instead of starving some games.
+//Usage: GameServer [-port N] [-engine <spec>] [-workers N] [-record file]
+//The server runs until the process is told to stop. Ctrl+C or a plain kill is the clean way out: a shutdown hook stops
+//accepting games and closes the -record log, which writes and syncs every finished game. kill -9 skips the hook and loses
+//the games appended since the last sync.
+public class GameServer
+{
+	public static final int DEFAULT_PORT = 7070;
+	private static final long SESSION_STACK_BYTES = 256 * 1024;//Platform thread fallback only
+	private static final int LINE_BUFFER_BYTES = 256;//A Reader would bring an 8 KB decoder buffer per session
+	private static final int MAX_LINE = 4096;
+	private static final long MIN_SEARCH_MILLIS = 10;
+
+	private EngineOptions options;
+	private int workers;
+	private ThreadPoolExecutor searchPool;
+	private ExecutorService sessionPool;
+	private ThreadLocal<SearchEngine[]> workerEngines;//[0] plays 'X', [1] plays 'O'
+	private List<SearchEngine> created;
+	private GameLogWriter record;
+	private ServerSocket server;
+	private AtomicInteger sessions;
+	private AtomicLong sequence;//Ties between equal deadlines go to the earlier request
+	private boolean closed;
+
+	public GameServer(EngineOptions options, int workers)
+	{
+		this.options = options;
+		this.workers = Math.max(1, workers);
+		this.created = new ArrayList<SearchEngine>();
+		this.sessions = new AtomicInteger();
+		this.sequence = new AtomicLong();
+		this.workerEngines = ThreadLocal.withInitial(() -> {
+			SearchEngine[] pair = {this.options.createEngine('X'), this.options.createEngine('O')};
+			synchronized(this.created)
+			{
+				this.created.add(pair[0]);
+				this.created.add(pair[1]);
+			}//end synchronized
+			return pair;
+		});
+	}//end Constructor
+
+	public static void main(String[] args) throws IOException
+	{
+		int port = DEFAULT_PORT;
+		EngineOptions options = new EngineOptions();
+		int workers = -1;
+		String record = null;
+		for(int i = 0; i < args.length; i++)
+		{
+			switch(args[i])
+			{
+				case "-port": port = Integer.parseInt(args[++i]); break;
+				case "-engine": options = EngineOptions.parse(args[++i]); break;
+				case "-workers": workers = Integer.parseInt(args[++i]); break;
+				case "-record": record = args[++i]; break;
+				default: throw new IllegalArgumentException("Unknown argument " + args[i]);
+			}//end switch
+		}//end for
+		if(workers <= 0)
+			workers = Math.max(1, Runtime.getRuntime().availableProcessors() / options.getThreads());
+
+		GameServer gameServer = new GameServer(options, workers);
+		if(record != null)
+			gameServer.setRecord(GameLogWriter.open(Paths.get(record)));
+		gameServer.start(port);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				gameServer.stop();
+				gameServer.shutdown();
+			}
+			catch(IOException e) {
+				System.err.println("Could not close the server cleanly: " + e);
+			}
+		}, "isolation-server-shutdown"));
+		System.out.println("Listening on port " + gameServer.getPort() + " with " + workers + " search workers, Ctrl+C stops the server");
+		gameServer.serve();
+	}//end main
+
+	//Finished games are appended to record
+	public void setRecord(GameLogWriter record)
+	{
+		this.record = record;
+	}//end setRecord
+
+	//Binds to the loopback address; port 0 picks a free one
+	public void start(int port) throws IOException
+	{
+		this.server = new ServerSocket(port, 512, InetAddress.getLoopbackAddress());
+		this.searchPool = new ThreadPoolExecutor(this.workers, this.workers, 0, TimeUnit.MILLISECONDS,
+				new PriorityBlockingQueue<Runnable>(), runnable -> {
+					Thread thread = new Thread(runnable, "isolation-server-search");
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.sessionPool = sessionExecutor();
+	}//end start
+
+	//Accepts connections until stop() is called
+	public void serve() throws IOException
+	{
+		try {
+			while(!this.server.isClosed())
+			{
+				Socket socket;
+				try {
+					socket = this.server.accept();
+				}
+				catch(IOException e) {
+					if(this.server.isClosed())
+						break;
+					throw e;
+				}
+				this.sessionPool.execute(() -> session(socket));
+			}//end while
+		}
+		finally {
+			shutdown();
+		}
+	}//end serve
+
+	public void stop() throws IOException
+	{
+		this.server.close();
+	}//end stop
+
+	//Runs once, from serve() or from the shutdown hook, whichever gets here first
+	private synchronized void shutdown() throws IOException
+	{
+		if(this.closed)
+			return;
+		this.closed = true;
+		this.sessionPool.shutdownNow();
+		this.searchPool.shutdownNow();
+		synchronized(this.created)
+		{
+			for(SearchEngine engine : this.created)
+				engine.shutdown();
+		}//end synchronized
+		if(this.record != null)
+			this.record.close();
+	}//end shutdown
+
+	public int getPort()
+	{
+		return this.server.getLocalPort();
+	}//end getPort
+
+	public int getSessionCount()
+	{
+		return this.sessions.get();
+	}//end getSessionCount
+
+	//Virtual threads if this runtime has them (Java 21 on), found by reflection so the code still builds on older ones
+	private static ExecutorService sessionExecutor()
+	{
+		try {
+			return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch(ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(null, runnable, "isolation-session", SESSION_STACK_BYTES);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}//end sessionExecutor
+
+	//Reads one connection's commands until quit or the connection closes
+	private void session(Socket socket)
+	{
+		this.sessions.incrementAndGet();
+		try(Socket connection = socket) {
+			InputStream input = new BufferedInputStream(connection.getInputStream(), LINE_BUFFER_BYTES);
+			OutputStream output = connection.getOutputStream();
+			Game game = null;
+			String line;
+			while((line = readLine(input)) != null)
+			{
+				String[] words = line.trim().split("\\s+");
+				if(words[0].isEmpty())
+					continue;
+				if(words[0].equals("quit"))
+					break;
+				String reply;
+				try {
+					switch(words[0])
+					{
+						case "new":
+							Game started = newGame(words);
+							reply = started.computer == 'X' ? "ok\n" + computerMove(started) : "ok";
+							game = started;//Only once its first move is made, a failed search leaves the old game
+							break;
+						case "move":
+							if(game == null || words.length < 2)
+								throw new IllegalArgumentException("move <square> after new");
+							reply = playerMove(game, words[1]);
+							break;
+						case "position":
+							if(game == null)
+								throw new IllegalArgumentException("no game, send new first");
+							reply = "position " + game.board.toPositionString() + " " + game.board.getSideToMove();
+							break;
+						default:
+							throw new IllegalArgumentException("unknown command " + words[0]);
+					}//end switch
+				}
+				catch(IllegalArgumentException | IllegalStateException e) {
+					reply = "error " + e.getMessage();
+				}
+				output.write((reply + "\n").getBytes(StandardCharsets.UTF_8));
+				output.flush();
+			}//end while
+		}
+		catch(IOException e) {
+			//The client went away, its game goes with it
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			this.sessions.decrementAndGet();
+		}
+	}//end session
+
+	//The protocol is plain ASCII, so a line is read a byte at a time from the small buffer; null at the end of the stream
+	private static String readLine(InputStream input) throws IOException
+	{
+		StringBuilder line = new StringBuilder();
+		int next;
+		while((next = input.read()) >= 0 && next != '\n')
+		{
+			if(line.length() >= MAX_LINE)
+				throw new IOException("line too long");
+			if(next != '\r')
+				line.append((char)next);
+		}//end while
+		return next < 0 && line.length() == 0 ? null : line.toString();
+	}//end readLine
+
+	private Game newGame(String[] words)
+	{
+		int size = 8;
+		long moveTime = this.options.getMoveTimeMillis();
+		char computer = 'X';
+		for(int i = 1; i + 1 < words.length; i += 2)
+		{
+			switch(words[i])
+			{
+				case "size": size = Integer.parseInt(words[i + 1]); break;
+				case "time": moveTime = Long.parseLong(words[i + 1]); break;
+				case "computer": computer = Character.toUpperCase(words[i + 1].charAt(0)); break;
+				default: throw new IllegalArgumentException("unknown setting " + words[i]);
+			}//end switch
+		}//end for
+		if(computer != 'X' && computer != 'O')
+			throw new IllegalArgumentException("computer is X or O");
+		if(moveTime < 1 || moveTime > TimeManager.MAX_BUDGET_MILLIS)
+			throw new IllegalArgumentException("time is from 1 to " + TimeManager.MAX_BUDGET_MILLIS + " milliseconds");
+		return new Game(new Board(size, 'X'), computer, moveTime);
+	}//end newGame
+
+	private String playerMove(Game game, String name) throws InterruptedException, IOException
+	{
+		char player = game.computer == 'X' ? 'O' : 'X';
+		if(game.over || game.board.getSideToMove() != player)
+			throw new IllegalArgumentException(game.over ? "the game is over" : "not your move");
+		int square = game.board.parseSquare(name);
+		if(!game.board.isLegalMove(player, square))
+			throw new IllegalArgumentException(name + " is not a legal move");
+		game.board.makeMove(player, square);
+		try {
+			return computerMove(game);
+		}
+		catch(IllegalStateException e) {
+			game.board.undoMove();//The search failed, the player can send the move again
+			throw e;
+		}
+	}//end playerMove
+
+	//The computer's move, or the end of the game if either side is stuck
+	private String computerMove(Game game) throws InterruptedException, IOException
+	{
+		char player = game.computer == 'X' ? 'O' : 'X';
+		if(game.board.countAvailableSpaces(game.computer) == 0)
+			return gameOver(game, player);
+		int square = search(game);
+		game.board.makeMove(game.computer, square);
+		String reply = "move " + game.board.formatSquare(square);
+		if(game.board.countAvailableSpaces(player) == 0)
+			reply += "\n" + gameOver(game, game.computer);
+		return reply;
+	}//end computerMove
+
+	private String gameOver(Game game, char winner) throws IOException
+	{
+		game.over = true;
+		if(this.record != null)
+			this.record.append(game.board, winner, false, game.moveTime, "GameServer computer=" + game.computer + " " + this.options);
+		return "gameover " + winner;
+	}//end gameOver
+
+	//Queues the search on the CPU workers; the session's thread only waits
+	private int search(Game game) throws InterruptedException
+	{
+		long deadline = System.nanoTime() + game.moveTime * 1000000L;
+		Board board = new Board(game.board);
+		char side = game.computer;
+		SearchTask task = new SearchTask(deadline, this.sequence.getAndIncrement(), () -> {
+			SearchEngine engine = this.workerEngines.get()[side == 'X' ? 0 : 1];
+			//Time spent in the queue comes out of the move's own budget
+			long remaining = (deadline - System.nanoTime()) / 1000000L;
+			engine.setMoveTimeMillis(Math.max(MIN_SEARCH_MILLIS, remaining));
+			if(this.options.getDepth() > 0)
+				return engine.searchFixed(board, this.options.getDepth()).getSquare();
+			return engine.search(board, board.getMoveCount()).getSquare();
+		});
+		this.searchPool.execute(task);
+		try {
+			return task.get();
+		}
+		catch(ExecutionException e) {
+			throw new IllegalStateException("search failed: " + e.getCause(), e.getCause());
+		}
+	}//end search
+
+	//Everything a session keeps between its moves
+	private static class Game
+	{
+		private final Board board;
+		private final char computer;
+		private final long moveTime;//Milliseconds
+		private boolean over;
+
+		private Game(Board board, char computer, long moveTime)
+		{
+			this.board = board;
+			this.computer = computer;
+			this.moveTime = moveTime;
+		}//end Constructor
+	}//end Game
+
+	//A queued search, ordered by deadline so the searches closest to running out of time go first
+	private static class SearchTask extends FutureTask<Integer> implements Comparable<SearchTask>
+	{
+		private final long deadline;
+		private final long sequence;
+
+		private SearchTask(long deadline, long sequence, Callable<Integer> search)
+		{
+			super(search);
+			this.deadline = deadline;
+			this.sequence = sequence;
+		}//end Constructor
+
+		public int compareTo(SearchTask other)
+		{
+			long difference = this.deadline - other.deadline;
+			if(difference != 0)
+				return difference < 0 ? -1 : 1;
+			return Long.compare(this.sequence, other.sequence);
+		}//end compareTo
+	}//end SearchTask
+}//end GameServer
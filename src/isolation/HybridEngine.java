@@ -0,0 +1,84 @@
+package isolation;
+
+//Monte Carlo search while the board is open and alpha-beta once it has filled up.
+//With most squares empty the alpha-beta search cannot see far enough for the walls to show in its evaluation,
+//while playouts to the end of the game do; later the tree is small enough for alpha-beta to read it out.
+public class HybridEngine implements SearchEngine
+{
+	public static final double DEFAULT_SWITCH = 0.8;
+
+	private MonteCarloSearch opening;
+	private Adversarial endgame;
+	private double switchShare;//Share of empty squares below which alpha-beta takes over
+	private SearchEngine last;
+
+	public HybridEngine(MonteCarloSearch opening, Adversarial endgame, double switchShare)
+	{
+		this.opening = opening;
+		this.endgame = endgame;
+		this.switchShare = switchShare;
+		this.last = endgame;
+	}//end Constructor
+
+	//The engine for this position
+	private SearchEngine choose(Board layout)
+	{
+		int squares = layout.getBoardDimension() * layout.getBoardDimension();
+		if(layout.countEmptySquares() > this.switchShare * squares)
+			this.last = this.opening;
+		else
+			this.last = this.endgame;
+		return this.last;
+	}//end choose
+
+	public SearchStats search(Board layout, int turnCount)
+	{
+		return choose(layout).search(layout, turnCount);
+	}//end search
+
+	//The limit means what it does to the engine chosen, thousands of playouts or a depth
+	public SearchStats searchFixed(Board layout, int limit)
+	{
+		return choose(layout).searchFixed(layout, limit);
+	}//end searchFixed
+
+	public void setMoveTimeMillis(long millis)
+	{
+		this.opening.setMoveTimeMillis(millis);
+		this.endgame.setMoveTimeMillis(millis);
+	}//end setMoveTimeMillis
+
+	public long getMoveTimeMillis()
+	{
+		return this.endgame.getMoveTimeMillis();
+	}//end getMoveTimeMillis
+
+	public void setThreadCount(int threads)
+	{
+		this.opening.setThreadCount(threads);
+		this.endgame.setThreadCount(threads);
+	}//end setThreadCount
+
+	public void stop()
+	{
+		this.opening.stop();
+		this.endgame.stop();
+	}//end stop
+
+	public void newGame()
+	{
+		this.opening.newGame();
+		this.endgame.newGame();
+	}//end newGame
+
+	public void shutdown()
+	{
+		this.opening.shutdown();
+		this.endgame.shutdown();
+	}//end shutdown
+
+	public SearchStats getLastStats()
+	{
+		return this.last.getLastStats();
+	}//end getLastStats
+}//end HybridEngine
@@ -1,6 +1,9 @@
 package isolation;
 
-import java.awt.Point;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Scanner;
 import java.util.regex.Matcher;
@@ -12,7 +15,7 @@ public class IsolationGame
 	private char computer;
 	private char player;
 	private boolean computerTurn;
-	private long moveTimeLimit;
+	private long moveTimeLimit;//Milliseconds
 	private Board initialBoard;
 	private ArrayList<String> userMoves;
 	private ArrayList<String> computerMoves;
@@ -24,24 +27,29 @@ public class IsolationGame
 		this.computer = 'X';//Default computer will be 'X'
 		this.player = 'O';
 		this.computerTurn = true;
-		this.moveTimeLimit = 20;
+		this.moveTimeLimit = 20000;
 		this.initialBoard = new Board(8, 'X');//'X' will always go first
 		this.userMoves = new ArrayList<String>(32);
 		this.computerMoves = new ArrayList<String>(32);
 		this.totalMoves = new ArrayList<String>(32);
-		play();//Runs the game
 	}//end Default Constructor
 	
-	public IsolationGame(int mTL, char startingPlayer) 
+	//mTL is the time allowed for a move in seconds, fractions of a second are allowed
+	public IsolationGame(double mTL, char startingPlayer) 
+	{
+		this(mTL, startingPlayer, 8);
+	}//end Constructor
+	
+	//Played on a dimension x dimension board, anything from 2 to 64
+	public IsolationGame(double mTL, char startingPlayer, int dimension) 
 	{
 		this.kb = new Scanner(System.in);
 		determineTurnOrder(startingPlayer);
-		this.moveTimeLimit = mTL;
-		this.initialBoard = new Board(8, 'X');//'X' will always go first
+		this.moveTimeLimit = Math.round(mTL * 1000);
+		this.initialBoard = new Board(dimension, 'X');//'X' will always go first
 		this.userMoves = new ArrayList<String>(32);
 		this.computerMoves = new ArrayList<String>(32);
 		this.totalMoves = new ArrayList<String>(32);
-		play();//Runs the game
 	}//end Constructor
 	
 	private void determineTurnOrder(char startingPlayer)
@@ -52,13 +60,54 @@ public class IsolationGame
 	}//end determineTurnOrder
 
 	//Runs Isolation Game with an Iterative Deepening Search Strategy
-	private void play()
+	public void play()
 	{	
 		boolean gameFinished = false;
-		Adversarial search = new Adversarial(this.moveTimeLimit, this.computer, this.player);
+		Adversarial search = new Adversarial(0, this.computer, this.player);
+		search.setMoveTimeMillis(this.moveTimeLimit);
+		//-Disolation.threads=N searches each move with N threads
+		search.setThreadCount(Integer.getInteger("isolation.threads", 1));
+		//-Disolation.ponder=true keeps the computer thinking while the opponent enters a move
+		boolean ponder = Boolean.getBoolean("isolation.ponder");
+		//-Disolation.stats=true prints the depth, node count and hit rates of every computer move
+		boolean printStats = Boolean.getBoolean("isolation.stats");
+		//Opening book written by BookBuilder, -Disolation.book=<file> to use one other than isolation.book
+		Path bookFile = Paths.get(System.getProperty("isolation.book", OpeningBook.DEFAULT_FILE));
+		if(Files.isReadable(bookFile))
+		{
+			try {
+				search.setOpeningBook(OpeningBook.open(bookFile));
+			}
+			catch(IOException e) {
+				System.out.println("Opening book not used: " + e.getMessage());
+			}
+		}//end if
+		//Small walled-off regions from TablebaseGenerator, -Disolation.tablebase=<file> to use one other than isolation.tb
+		Path tablebaseFile = Paths.get(System.getProperty("isolation.tablebase", RegionTablebase.DEFAULT_FILE));
+		if(Files.isReadable(tablebaseFile))
+		{
+			try {
+				search.setTablebase(RegionTablebase.open(tablebaseFile));
+			}
+			catch(IOException e) {
+				System.out.println("Tablebase not used: " + e.getMessage());
+			}
+		}//end if
+		//Evaluation weights fitted by WeightTuner, -Disolation.weights=<file> to use one other than isolation.weights
+		Path weightsFile = Paths.get(System.getProperty("isolation.weights", EvaluationWeights.DEFAULT_FILE));
+		if(Files.isReadable(weightsFile))
+		{
+			try {
+				search.setWeights(EvaluationWeights.load(weightsFile));
+			}
+			catch(IOException e) {
+				System.out.println("Evaluation weights not used: " + e.getMessage());
+			}
+		}//end if
 		Board currentBoard = this.initialBoard;
-		Point userMove, computerMove;
+		int userMove, computerMove;//Square numbers, turned into "A1" style names only for display
 		int turnCount = 0;
+		char winner = ' ';
 		
 		System.out.println("\nInitial Board Layout:");
 		printBoardWithTurnLog(currentBoard, turnCount);
@@ -68,35 +117,41 @@ public class IsolationGame
 		{	
 			if(this.computerTurn)//Computer makes a move
 			{
-				currentBoard.setAvailableSpaces(currentBoard.findAvailableSpaces(this.computer));					
-				if(currentBoard.noMovesRemaining())//Checks if there are no available moves remaining
+				if(currentBoard.noMovesRemaining(this.computer))//Checks if there are no available moves remaining
 				{
 					System.out.println("Congratulations! You win! The computer is out of moves!");
+					winner = this.player;
 					gameFinished = true;
 				}//end if
 				else//The computer still had additional moves available
 				{
-					computerMove = search.iterativeDeepening(currentBoard, turnCount); 
-					this.computerMoves.add(formatPoint(computerMove));
-					this.totalMoves.add(formatPoint(computerMove));
-					currentBoard.movePlayer(this.computer, computerMove);
+					SearchStats stats = search.search(currentBoard, turnCount);
+					computerMove = stats.getSquare();
+					if(printStats)
+						System.out.println(stats);
+					this.computerMoves.add(currentBoard.formatSquare(computerMove));
+					this.totalMoves.add(currentBoard.formatSquare(computerMove));
+					currentBoard.makeMove(this.computer, computerMove);
 				}//end else
 			}//end if
 			
 			else//User makes a move
 			{
-				currentBoard.setAvailableSpaces(currentBoard.findAvailableSpaces(this.player));
+				if(ponder && !currentBoard.noMovesRemaining(this.player))
+					search.startPondering(currentBoard, turnCount);
 				userMove = getUserMove(currentBoard);
-				if(userMove == null)//Checks if there are no available moves remaining
+				search.stopPondering();
+				if(userMove < 0)//Checks if there are no available moves remaining
 				{
 					System.out.println("Sorry! You lose! You are out of moves!");
+					winner = this.computer;
 					gameFinished = true;
 				}//end if 
 				else//Moves were still available
 				{
-					this.userMoves.add(formatPoint(userMove));
-					this.totalMoves.add(formatPoint(userMove));
-					currentBoard.movePlayer(this.player, userMove);
+					this.userMoves.add(currentBoard.formatSquare(userMove));
+					this.totalMoves.add(currentBoard.formatSquare(userMove));
+					currentBoard.makeMove(this.player, userMove);
 				}//end else
 			}//end else
 			
@@ -108,20 +163,32 @@ public class IsolationGame
 			if(!this.computerTurn && this.computerMoves.size() > 0)
 				System.out.println("\nComputer's Move: " + this.computerMoves.get(this.computerMoves.size() - 1));
 		}//end while
+		
+		//-Disolation.record=<file> appends the game to a game log (see GameLogWriter)
+		String recordFile = System.getProperty("isolation.record");
+		if(recordFile != null)
+		{
+			try(GameLogWriter log = GameLogWriter.open(Paths.get(recordFile))) {
+				log.append(currentBoard, winner, false, this.moveTimeLimit, "IsolationGame computer=" + this.computer);
+			}
+			catch(IOException e) {
+				System.out.println("Game not recorded: " + e.getMessage());
+			}
+		}//end if
 	}//end play
 	
-	private Point getUserMove(Board currentBoard)
+	//The square the user moves to, or -1 when the user has no moves left
+	private int getUserMove(Board currentBoard)
 	{
-		if(currentBoard.noMovesRemaining())
+		if(currentBoard.noMovesRemaining(this.player))
 		{
-			return null;
+			return -1;
 		}//end if
 		
-		//Used to validate user input for move
-		String pattern = "[A-H][1-8]";
-		Pattern r = Pattern.compile(pattern);
+		//Used to validate user input for move, row letters then a column number
+		Pattern r = Pattern.compile("[A-Z]+[1-9][0-9]*");
 		
-		Point userInput = new Point(-1, -1);
+		int square = -1;
 		String input = "";
 		boolean valid = false;
 		
@@ -129,19 +196,14 @@ public class IsolationGame
 		{
 			System.out.print("\nEnter opponent's move: ");
 			input = kb.nextLine();
-			input = input.toUpperCase();
+			input = input.trim().toUpperCase();
 			//Used to match user input to expected format (via regular expression)
 			Matcher m = r.matcher(input);
+			square = m.matches() ? currentBoard.parseSquare(input) : -1;
 			
-			if(input.length() != 2)
-			{
-				System.out.println("Input Must Be 2 Characters!");
-			}//end if
-			
-			if(m.find() && input.length() == 2)
+			if(square >= 0)
 			{
-				userInput = convertUserInput(input);
-				if(currentBoard.getAvailableSpaces().contains(userInput))
+				if(currentBoard.isLegalMove(this.player, square))
 				{
 					valid = true;
 				}//end if
@@ -152,22 +214,30 @@ public class IsolationGame
 			}//end if
 			else
 			{
-				System.out.println("Incorrect Format. Format Examples: 'A1', 'D5', 'H7'");
+				System.out.println("Incorrect Format. Format Examples: 'A1', 'D5', '" + currentBoard.formatSquare(
+						currentBoard.getBoardDimension() * currentBoard.getBoardDimension() - 2) + "'");
 			}
 		}//end while
-		return userInput;
+		return square;
 	}//end getUserMove
 	
 	private void printBoardWithTurnLog(Board currentBoard, int turnCount)
 	{	
-		char[] boardLetters = {'A', 'B', 'C' , 'D', 'E', 'F', 'G', 'H'};
-		System.out.print("\n  1 2 3 4 5 6 7 8");
-		System.out.print(padRight("", 5) + "Computer vs. Opponent");
-		if(turnCount <= 16) {
-			for(int i = 0; i < currentBoard.getBoardDimension(); i++) {
-				System.out.print("\n" + boardLetters[i] + " ");
-				for(int j = 0; j < currentBoard.getBoardDimension(); j++) {
-					System.out.print(String.valueOf(currentBoard.getBoardLayout()[i][j]) + " ");
+		int dimension = currentBoard.getBoardDimension();
+		char[][] layout = currentBoard.getBoardLayout();
+		//Row letters and column numbers get wider past 26 rows and 9 columns
+		int labelWidth = Board.rowName(dimension - 1).length();
+		int cellWidth = String.valueOf(dimension).length();
+		int rowWidth = labelWidth + 1 + dimension * (cellWidth + 1);
+		System.out.print("\n" + padRight("", labelWidth + 1));
+		for(int j = 0; j < dimension; j++)
+			System.out.print(padRight(String.valueOf(j + 1), cellWidth) + " ");
+		System.out.print(padRight("", 4) + "Computer vs. Opponent");
+		if(turnCount <= 2 * dimension) {
+			for(int i = 0; i < dimension; i++) {
+				System.out.print("\n" + padRight(Board.rowName(i), labelWidth) + " ");
+				for(int j = 0; j < dimension; j++) {
+					System.out.print(padRight(String.valueOf(layout[i][j]), cellWidth) + " ");
 				}//end inner for
 				
 				//If Computer Goes First
@@ -188,14 +258,14 @@ public class IsolationGame
 				}//end else
 			}//end outer for
 			System.out.println();
-		}//end if(turnCount < 16)
-		//Prints Moves beyond Row H
+		}//end if(turnCount <= 2 * dimension)
+		//Prints Moves beyond the last row
 		else {//After 16 turns
 			for(int i = 0; i < totalMoves.size(); i++) {
-				if(i < 8) {
-					System.out.print("\n" + boardLetters[i] + " ");
-					for(int j = 0; j < currentBoard.getBoardDimension(); j++) {
-						System.out.print(String.valueOf(currentBoard.getBoardLayout()[i][j]) + " ");
+				if(i < dimension) {
+					System.out.print("\n" + padRight(Board.rowName(i), labelWidth) + " ");
+					for(int j = 0; j < dimension; j++) {
+						System.out.print(padRight(String.valueOf(layout[i][j]), cellWidth) + " ");
 					}//end inner for
 					//If Computer Goes First
 					if(i < computerMoves.size() && !(computerMoves.get(i).equals(""))) {
@@ -218,17 +288,17 @@ public class IsolationGame
 					//If Computer Goes First
 					if(i < computerMoves.size() && !(computerMoves.get(i).equals(""))) {
 						if (i < computerMoves.size() && i < userMoves.size() && !(computerMoves.get(i).equals("")) && !(userMoves.get(i).equals("")))
-							System.out.print("\n" + padRight("", 22) + (i+1) + ". " + computerMoves.get(i) + padRight("", 8) + userMoves.get(i));
+							System.out.print("\n" + padRight("", rowWidth + 4) + (i+1) + ". " + computerMoves.get(i) + padRight("", 8) + userMoves.get(i));
 						else
-							System.out.print("\n" + padRight("", 22) + (i+1) + ". " + computerMoves.get(i));
+							System.out.print("\n" + padRight("", rowWidth + 4) + (i+1) + ". " + computerMoves.get(i));
 					}//end if
 					//If opponent goes first
 					else {
 						if(i < userMoves.size() && !(userMoves.get(i).equals(""))) {
 							if (i < userMoves.size() && i < computerMoves.size() && !(userMoves.get(i).equals("")) && !(computerMoves.get(i).equals("")))
-								System.out.print("\n" + padRight("", 22) +(i+1) + ". " + computerMoves.get(i) + padRight("", 8) + userMoves.get(i));
+								System.out.print("\n" + padRight("", rowWidth + 4) +(i+1) + ". " + computerMoves.get(i) + padRight("", 8) + userMoves.get(i));
 							else 
-								System.out.print("\n" + (padRight("", 22) +(i+1) + ". " + padRight("", 10) + userMoves.get(i)));
+								System.out.print("\n" + (padRight("", rowWidth + 4) +(i+1) + ". " + padRight("", 10) + userMoves.get(i)));
 						}//end if
 					}//end else
 				}//end else		
@@ -246,45 +316,4 @@ public class IsolationGame
 	{
 	    return String.format("%" + n + "s", s);  
 	}//end padLeft
-	
-	private Point convertUserInput(String input)
-	{
-		char letter, col;
-		int x = -1, y = -1;
-		char[] boardLetters = {'A', 'B', 'C' , 'D', 'E', 'F', 'G', 'H'};
-		
-		input = input.toUpperCase();
-		letter = input.charAt(0);
-		col = input.charAt(1);
-		
-		for(int i = 0; i < boardLetters.length; i++)
-		{
-			if(letter == boardLetters[i])
-			{
-				x = i;
-				break;
-			}//end if
-		}//end for loop
-		y = Integer.parseInt(String.valueOf(col)) - 1;
-		Point userInput = new Point(x, y);
-		return userInput;
-	}//end convertUserInput
-	
-	private String formatPoint(Point move)
-	{
-		String formattedPoint = "";
-		char[] boardLetters = {'A', 'B', 'C' , 'D', 'E', 'F', 'G', 'H'};
-		
-		for(int i = 0; i < boardLetters.length; i++)
-		{
-			if(move.getX() == i)
-			{
-				formattedPoint += boardLetters[i];
-				break;
-			}//end if
-		}//end for loop
-		formattedPoint += (int)move.getY() + 1;
-		
-		return formattedPoint;
-	}//end formatPoint
 }//end IsolationGame
@@ -1,15 +1,32 @@
 package isolation;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Scanner;
 
 public class Main 
 {	
-	public static void main(String[] args)
+	private static final double MIN_MOVE_SECONDS = 0.001;//Anything shorter rounds to no time at all
+	
+	public static void main(String[] args) throws IOException
 	{	
+		//--protocol hands stdin/stdout to another program instead of a person, see EngineProtocol
+		if(args.length > 0 && args[0].equals("--protocol"))
+		{
+			new EngineProtocol(System.in, System.out).run();
+			return;
+		}//end if
+		//--server plays many games at once over a local socket, see GameServer for its arguments
+		if(args.length > 0 && args[0].equals("--server"))
+		{
+			GameServer.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}//end if
+		
 		//Need to add Input Validation Functionality
 		Scanner kb = new Scanner(System.in);
 		String startingPlayer, moveTimeLimit;
-		int timeLimit;
+		double timeLimit;
 		System.out.println("Welcome to the Isolation Game!");
 		
 		do
@@ -31,8 +48,11 @@ public class Main
 			moveTimeLimit = kb.nextLine();
 			
 			try {
-                timeLimit = Integer.parseInt(moveTimeLimit);
-                break;
+                timeLimit = Double.parseDouble(moveTimeLimit);
+                //Also false for NaN and Infinity, which parseDouble accepts
+                if(timeLimit >= MIN_MOVE_SECONDS && timeLimit <= TimeManager.MAX_BUDGET_MILLIS / 1000)
+                    break;
+                System.out.println("The time allowed must be between " + MIN_MOVE_SECONDS + " seconds and a year.");
             }//end try 
 			catch (NumberFormatException ne) 
 			{
@@ -40,9 +60,9 @@ public class Main
             }//end catch
 		}//end while
 		
-		//Initialize Starting Layout of Isolation Game
-		@SuppressWarnings("unused")
-		IsolationGame game = new IsolationGame(timeLimit, startingChar); 
+		//Initialize Starting Layout of Isolation Game, -Disolation.size=N plays on an N x N board (8 by default)
+		IsolationGame game = new IsolationGame(timeLimit, startingChar, Integer.getInteger("isolation.size", 8)); 
+		game.play();
 		
 		System.out.println("Thank you for playing the Isolation Game!");
 		kb.close();
@@ -0,0 +1,378 @@
+package isolation;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Monte Carlo tree search: UCT selection down the tree, one expansion per playout, then a light playout to the end of the game.
+//The tree lives in fixed arrays (the node arena) sized once, so memory does not grow with the move time; once the arena
+//is full playouts still run from the leaves but the tree stops growing.
+//Every thread works on the same tree. A playout adds a virtual loss to each node on its path until its result is known,
+//so the other threads see that line as worse for a moment and spread out over other moves.
+public class MonteCarloSearch implements SearchEngine
+{
+	public static final int DEFAULT_ARENA_MB = Adversarial.DEFAULT_HASH_SIZE_MB;
+	private static final int NODE_BYTES = 20;//Five ints per node
+	private static final double EXPLORATION = 0.4;//UCT constant for results counted from 0 to 1, tuned in engine matches
+	private static final int VIRTUAL_LOSS = 3;
+	private static final int UNEXPANDED = -1;
+	private static final int EXPANDING = -2;//Another thread is adding the children
+	private static final int PLAYOUTS_PER_LIMIT = 1000;//searchFixed's limit counts thousands of playouts
+	private static final long SOLVER_NODE_LIMIT = 20000000;//The move's hard deadline also stops it
+
+	//Node arena, indexed by node number; node 0 is the root
+	private final int[] moves;//Square moved to on the way into the node
+	private final int[] childCounts;
+	private final AtomicIntegerArray firstChild;//UNEXPANDED, EXPANDING or the number of the first child
+	private final AtomicIntegerArray visits;//Finished playouts through the node plus virtual losses still out
+	private final AtomicIntegerArray wins;//Playouts won by the side that moved into the node
+	private final AtomicInteger nextNode;
+
+	private long moveTimeLimit;//Milliseconds
+	private char computer;
+	private char player;
+	private TimeManager timeManager;
+	private boolean lightPlayouts;
+	private AtomicLong playouts;
+	private long playoutLimit;
+	private volatile int deepest;//Longest path selected in the tree this search
+	private SplittableRandom seeds;
+	private EndgameSolver endgameSolver;
+	private SearchStats lastStats;
+	private ExecutorService helperPool;
+	private int helperCount;
+
+	public MonteCarloSearch(long mTL, char computerSymbol, char playerSymbol)
+	{
+		this(mTL, computerSymbol, playerSymbol, DEFAULT_ARENA_MB);
+	}//end Constructor
+
+	//mTL is the time allowed for a move in seconds, arenaMB the memory given to tree nodes
+	public MonteCarloSearch(long mTL, char computerSymbol, char playerSymbol, int arenaMB)
+	{
+		int nodes = (int)Math.min(Integer.MAX_VALUE - 8, Math.max(1024, ((long)arenaMB << 20) / NODE_BYTES));
+		this.moves = new int[nodes];
+		this.childCounts = new int[nodes];
+		this.firstChild = new AtomicIntegerArray(nodes);
+		this.visits = new AtomicIntegerArray(nodes);
+		this.wins = new AtomicIntegerArray(nodes);
+		this.nextNode = new AtomicInteger(1);
+		this.moveTimeLimit = mTL * 1000;
+		this.computer = computerSymbol;
+		this.player = playerSymbol;
+		this.timeManager = new TimeManager();
+		this.lightPlayouts = true;
+		this.playouts = new AtomicLong();
+		this.seeds = new SplittableRandom(0x4D435453L);
+		this.endgameSolver = new EndgameSolver();
+	}//end Constructor
+
+	public void setMoveTimeMillis(long millis)
+	{
+		this.moveTimeLimit = millis;
+	}//end setMoveTimeMillis
+
+	public long getMoveTimeMillis()
+	{
+		return this.moveTimeLimit;
+	}//end getMoveTimeMillis
+
+	//Light playouts pick the better of two random moves by the mobility they leave, plain ones any random move
+	public void setLightPlayouts(boolean light)
+	{
+		this.lightPlayouts = light;
+	}//end setLightPlayouts
+
+	public void setThreadCount(int threads)
+	{
+		shutdown();
+		if(threads > 1)
+		{
+			this.helperCount = threads - 1;
+			this.helperPool = Executors.newFixedThreadPool(this.helperCount, runnable -> {
+				Thread thread = new Thread(runnable, "isolation-mcts-helper");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}//end if
+	}//end setThreadCount
+
+	public void shutdown()
+	{
+		if(this.helperPool != null)
+			this.helperPool.shutdownNow();
+		this.helperPool = null;
+		this.helperCount = 0;
+	}//end shutdown
+
+	public void stop()
+	{
+		this.timeManager.stop();
+	}//end stop
+
+	//Nothing is kept between moves except the random seeds, which start over
+	public void newGame()
+	{
+		this.seeds = new SplittableRandom(0x4D435453L);
+	}//end newGame
+
+	public SearchStats getLastStats()
+	{
+		return this.lastStats;
+	}//end getLastStats
+
+	public SearchStats search(Board layout, int turnCount)
+	{
+		this.timeManager.start(this.moveTimeLimit, layout);
+		return run(layout, Long.MAX_VALUE);
+	}//end search
+
+	public SearchStats searchFixed(Board layout, int limit)
+	{
+		this.timeManager.startInfinite();
+		return run(layout, (long)limit * PLAYOUTS_PER_LIMIT);
+	}//end searchFixed
+
+	private SearchStats run(Board layout, long playoutLimit)
+	{
+		SearchMoveEvent event = new SearchMoveEvent();
+		event.begin();
+		SearchStats stats = new SearchStats();
+		Board board = new Board(layout);
+		int[] rootMoves = new int[4 * board.getBoardDimension()];
+		int count = board.generateMoves(this.computer, rootMoves);
+		if(count == 0)
+			return finish(stats, event, board, TranspositionTable.NO_MOVE, 0, SearchStats.MCTS);
+
+		//Walled off players are solved exactly, as the alpha-beta search does
+		if(board.isCompact() && board.playersSeparated())
+		{
+			int playerMoves = this.endgameSolver.longestPath(board, this.player, SOLVER_NODE_LIMIT, this.timeManager);
+			int solved = playerMoves == EndgameSolver.UNKNOWN ? TranspositionTable.NO_MOVE
+					: this.endgameSolver.bestMove(board, this.computer, SOLVER_NODE_LIMIT, playerMoves + 1, this.timeManager);
+			if(solved != TranspositionTable.NO_MOVE)
+				return finish(stats, event, board, solved, 0, SearchStats.ENDGAME);
+		}//end if
+
+		this.nextNode.set(1);
+		this.firstChild.set(0, UNEXPANDED);
+		this.childCounts[0] = 0;
+		this.visits.set(0, 0);
+		this.wins.set(0, 0);
+		this.playouts.set(0);
+		this.playoutLimit = playoutLimit;
+		this.deepest = 0;
+
+		ArrayList<Future<?>> running = new ArrayList<Future<?>>();
+		for(int i = 0; i < this.helperCount; i++)
+		{
+			Worker helper = new Worker(board, this.seeds.split());
+			running.add(this.helperPool.submit(() -> {
+				helper.run();
+				return null;
+			}));
+		}//end for
+		new Worker(board, this.seeds.split()).run();
+		for(Future<?> helper : running)
+		{
+			try {
+				helper.get();
+			}
+			catch(ExecutionException e) {
+				throw new IllegalStateException("Playout helper failed", e.getCause());
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}//end for
+
+		//The most visited move is the one the tree trusts most, its win rate is only how good it looks
+		int first = this.firstChild.get(0);
+		if(first < 0)
+			return finish(stats, event, board, rootMoves[0], 0, SearchStats.MCTS);//Stopped before the first playout
+		int best = first;
+		for(int child = first + 1; child < first + this.childCounts[0]; child++)
+		{
+			if(this.visits.get(child) > this.visits.get(best))
+				best = child;
+		}//end for
+		int score = this.visits.get(best) == 0 ? 0
+				: (int)Math.round(1000.0 * (2.0 * this.wins.get(best) / this.visits.get(best) - 1));
+		stats.recordIteration(this.deepest, this.playouts.get(), this.timeManager.elapsedNanos());
+		return finish(stats, event, board, this.moves[best], score, SearchStats.MCTS);
+	}//end run
+
+	private SearchStats finish(SearchStats stats, SearchMoveEvent event, Board board, int move, int score, String source)
+	{
+		stats.finish(move, board.getBoardDimension(), score, source, this.playouts.get(), this.timeManager.elapsedNanos(),
+				new long[SearchStats.COUNTER_COUNT]);
+		this.lastStats = stats;
+		event.end();
+		if(event.shouldCommit())
+		{
+			event.move = move < 0 ? "none" : board.formatSquare(move);
+			event.source = source;
+			event.depth = stats.getDepth();
+			event.score = score;
+			event.nodes = stats.getNodes();
+			event.nodesPerSecond = stats.getNodesPerSecond();
+			event.commit();
+		}//end if
+		return stats;
+	}//end finish
+
+	//One thread's playouts: its own board, move buffer and random numbers on the shared tree
+	private class Worker
+	{
+		private final Board board;
+		private final int[] path;//Nodes from the root down to the one the playout starts from
+		private final int[] buffer;
+		private final SplittableRandom random;
+
+		private Worker(Board root, SplittableRandom random)
+		{
+			this.board = new Board(root);
+			int squares = root.getBoardDimension() * root.getBoardDimension();
+			this.path = new int[squares + 1];
+			this.buffer = new int[4 * root.getBoardDimension()];
+			this.random = random;
+		}//end Constructor
+
+		private void run()
+		{
+			//Any playout can be the last, so unlike the alpha-beta iterations they run right up to the hard limit
+			long done = 0;
+			while(playouts.get() < playoutLimit && !((done++ & 15) == 0 && timeManager.hardLimitReached()))
+			{
+				playout();
+				playouts.incrementAndGet();
+			}//end while
+		}//end run
+
+		//Selection, expansion, playout and backpropagation for one game
+		private void playout()
+		{
+			int node = 0;
+			int depth = 0;
+			char side = computer;
+			this.path[0] = 0;
+			while(true)
+			{
+				int first = firstChild.get(node);
+				//A node only gets children once a playout through it has finished, which keeps the arena for lines worth growing
+				if(first == UNEXPANDED && (node == 0 || visits.get(node) > VIRTUAL_LOSS))
+					first = expand(node, side);
+				if(first < 0 || childCounts[node] == 0)
+					break;//A leaf, or a position where side has no moves
+				node = select(node, first);
+				visits.addAndGet(node, VIRTUAL_LOSS);
+				this.board.makeMove(side, moves[node]);
+				side = side == 'X' ? 'O' : 'X';
+				this.path[++depth] = node;
+			}//end while
+			if(depth > deepest)
+				deepest = depth;
+
+			int plies = depth + rollout(side);
+			char loser = plies % 2 == 0 ? computer : player;//The side to move when the game ended
+			for(int i = 0; i < plies; i++)
+				this.board.undoMove();
+
+			visits.incrementAndGet(0);
+			for(int i = 1; i <= depth; i++)
+			{
+				//The root's side moved into the odd levels
+				char mover = i % 2 == 1 ? computer : player;
+				if(mover != loser)
+					wins.incrementAndGet(this.path[i]);
+				visits.addAndGet(this.path[i], 1 - VIRTUAL_LOSS);
+			}//end for
+		}//end playout
+
+		//Adds node's children if this thread gets there first; returns the first child, or a negative value if it did not
+		private int expand(int node, char side)
+		{
+			if(!firstChild.compareAndSet(node, UNEXPANDED, EXPANDING))
+				return firstChild.get(node);
+			int count = this.board.generateMoves(side, this.buffer);
+			int first = nextNode.get();
+			if(first + count > moves.length || !nextNode.compareAndSet(first, first + count))
+			{
+				firstChild.set(node, UNEXPANDED);//Arena full or another expansion won the space, tried again later
+				return UNEXPANDED;
+			}//end if
+			for(int i = 0; i < count; i++)
+			{
+				int child = first + i;
+				moves[child] = this.buffer[i];
+				childCounts[child] = 0;
+				visits.set(child, 0);
+				wins.set(child, 0);
+				firstChild.set(child, UNEXPANDED);
+			}//end for
+			childCounts[node] = count;
+			firstChild.set(node, first);//Published last, so a thread that sees it sees the children
+			return first;
+		}//end expand
+
+		//UCT: win rate plus an exploration bonus that shrinks as a child is visited; unvisited children go first
+		private int select(int node, int first)
+		{
+			int count = childCounts[node];
+			double logParent = Math.log(Math.max(1, visits.get(node)));
+			int best = first;
+			double bestValue = Double.NEGATIVE_INFINITY;
+			int start = this.random.nextInt(count);//Ties and unvisited children are taken in a random order
+			for(int i = 0; i < count; i++)
+			{
+				int child = first + (start + i) % count;
+				int n = visits.get(child);
+				if(n == 0)
+					return child;
+				double value = (double)wins.get(child) / n + EXPLORATION * Math.sqrt(logParent / n);
+				if(value > bestValue)
+				{
+					bestValue = value;
+					best = child;
+				}//end if
+			}//end for
+			return best;
+		}//end select
+
+		//Plays to the end of the game from side to move, returns the number of moves made
+		private int rollout(char side)
+		{
+			int plies = 0;
+			while(true)
+			{
+				int count = this.board.generateMoves(side, this.buffer);
+				if(count == 0)
+					return plies;
+				int move = this.buffer[this.random.nextInt(count)];
+				if(lightPlayouts && count > 1)
+				{
+					int other = this.buffer[this.random.nextInt(count)];
+					if(mobilityAfter(side, other) > mobilityAfter(side, move))
+						move = other;
+				}//end if
+				this.board.makeMove(side, move);
+				side = side == 'X' ? 'O' : 'X';
+				plies++;
+			}//end while
+		}//end rollout
+
+		private int mobilityAfter(char side, int move)
+		{
+			this.board.makeMove(side, move);
+			int mobility = this.board.countAvailableSpaces(side);
+			this.board.undoMove();
+			return mobility;
+		}//end mobilityAfter
+	}//end Worker
+}//end MonteCarloSearch
@@ -0,0 +1,105 @@
+package isolation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//Read-only opening book mapped straight from disk.
+//File layout: a 16 byte header (magic, version, board dimension, entry count) followed by
+//entries of a position key, a move and a score, sorted by key so a lookup is a binary search.
+//Positions are stored as their canonical image (Board.getCanonicalTransform) with the move on that image,
+//so one entry answers for every rotation, reflection and colour swap of a position.
+public class OpeningBook
+{
+	public static final String DEFAULT_FILE = "isolation.book";
+	private static final int MAGIC = 0x49534F42;//"ISOB"
+	private static final int VERSION = 2;//Version 1 keyed positions as played, not by their canonical image
+	private static final int HEADER_BYTES = 16;
+	private static final int ENTRY_BYTES = 12;//long key, short move, short score
+
+	private MappedByteBuffer entries;
+	private int dimension;
+	private int entryCount;
+
+	private OpeningBook(MappedByteBuffer buffer)
+	{
+		this.entries = buffer;
+		this.dimension = buffer.getInt(8);
+		this.entryCount = buffer.getInt(12);
+	}//end Constructor
+
+	//Maps the book file, nothing is read until the first probe touches its pages
+	public static OpeningBook open(Path file) throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if(channel.size() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+				throw new IOException(file + " is not an opening book");
+			if(channel.size() != HEADER_BYTES + (long)buffer.getInt(12) * ENTRY_BYTES)
+				throw new IOException(file + " is truncated");
+			return new OpeningBook(buffer);
+		}//end try
+	}//end open
+
+	//Book move for sideToMove on board, or TranspositionTable.NO_MOVE
+	public int probe(Board board, char sideToMove)
+	{
+		int transform = board.getCanonicalTransform(sideToMove);
+		int move = probe(board.getSymmetricKey(sideToMove, transform));
+		return move == TranspositionTable.NO_MOVE ? move : board.untransformSquare(move, transform);
+	}//end probe
+
+	//Book move on the canonical image with key (Board.getSymmetricKey under the canonical transform), or TranspositionTable.NO_MOVE
+	public int probe(long key)
+	{
+		int low = 0;
+		int high = this.entryCount - 1;
+		while(low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			long middleKey = this.entries.getLong(HEADER_BYTES + middle * ENTRY_BYTES);
+			if(middleKey < key)
+				low = middle + 1;
+			else if(middleKey > key)
+				high = middle - 1;
+			else
+				return this.entries.getShort(HEADER_BYTES + middle * ENTRY_BYTES + 8);
+		}//end while
+		return TranspositionTable.NO_MOVE;
+	}//end probe
+
+	public int getDimension()
+	{
+		return this.dimension;
+	}//end getDimension
+
+	public int size()
+	{
+		return this.entryCount;
+	}//end size
+
+	//Writes count entries, which must already be sorted by key with no key repeated
+	public static void write(Path file, int dimension, long[] keys, int[] moves, int[] scores, int count) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + count * ENTRY_BYTES);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(dimension).putInt(count);
+		for(int i = 0; i < count; i++)
+		{
+			buffer.putLong(keys[i]);
+			buffer.putShort((short)moves[i]);
+			//Proven wins do not fit in a short, clamping keeps their sign
+			buffer.putShort((short)Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, scores[i])));
+		}//end for
+		buffer.flip();
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			while(buffer.hasRemaining())
+				channel.write(buffer);
+		}//end try
+	}//end write
+}//end OpeningBook
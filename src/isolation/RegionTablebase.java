@@ -0,0 +1,245 @@
+package isolation;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+//Precomputed longest paths for small walled-off regions, written by TablebaseGenerator.
+//A region and the player's square are reduced to one of their eight symmetric images moved to the corner
+//of an 8x8 frame, so every placement of the same shape shares one entry.
+//File layout: a 20 byte header (magic, version, largest region, entry count, entries per page), the first
+//entry of every page, then entries of a start square, a region and its longest path sorted by start and region.
+//Only the page index is held in memory, pages are read when first probed and the least recently used is dropped.
+//Reads go through RandomAccessFile, an interrupted search thread would close a FileChannel for good.
+public class RegionTablebase
+{
+	public static final String DEFAULT_FILE = "isolation.tb";
+	public static final int UNKNOWN = EndgameSolver.UNKNOWN;//Region too large or not in the table
+	static final int PAGE_ENTRIES = 1024;
+	private static final int MAGIC = 0x49534F54;//"ISOT"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 20;
+	private static final int INDEX_BYTES = 9;//byte start, long region
+	private static final int ENTRY_BYTES = 10;//byte start, long region, byte longest path
+	private static final int DEFAULT_CACHED_PAGES = 64;
+
+	private RandomAccessFile file;
+	private int maxRegionSize;
+	private int entryCount;
+	private int pageEntries;
+	private long entriesOffset;
+	private byte[] indexStarts;
+	private long[] indexRegions;
+
+	//Page cache, slot i holds page cachedPage[i] (-1 when empty) last used at tick lastUsed[i]
+	private int[] cachedPage;
+	private long[] lastUsed;
+	private byte[][] pageStarts;
+	private long[][] pageRegions;
+	private byte[][] pageLengths;
+	private int[] pageSizes;
+	private long tick;
+	private byte[] readBuffer;
+
+	private RegionTablebase(RandomAccessFile file, ByteBuffer header, int cachedPages) throws IOException
+	{
+		this.file = file;
+		this.maxRegionSize = header.getInt(8);
+		this.entryCount = header.getInt(12);
+		this.pageEntries = header.getInt(16);
+		int pageCount = (this.entryCount + this.pageEntries - 1) / this.pageEntries;
+		this.entriesOffset = HEADER_BYTES + (long)pageCount * INDEX_BYTES;
+		if(file.length() != this.entriesOffset + (long)this.entryCount * ENTRY_BYTES)
+			throw new IOException("Tablebase is truncated");
+
+		byte[] indexBytes = new byte[pageCount * INDEX_BYTES];
+		file.seek(HEADER_BYTES);
+		file.readFully(indexBytes);
+		ByteBuffer index = ByteBuffer.wrap(indexBytes);
+		this.indexStarts = new byte[pageCount];
+		this.indexRegions = new long[pageCount];
+		for(int i = 0; i < pageCount; i++)
+		{
+			this.indexStarts[i] = index.get();
+			this.indexRegions[i] = index.getLong();
+		}//end for
+
+		this.cachedPage = new int[cachedPages];
+		Arrays.fill(this.cachedPage, -1);
+		this.lastUsed = new long[cachedPages];
+		this.pageStarts = new byte[cachedPages][this.pageEntries];
+		this.pageRegions = new long[cachedPages][this.pageEntries];
+		this.pageLengths = new byte[cachedPages][this.pageEntries];
+		this.pageSizes = new int[cachedPages];
+		this.readBuffer = new byte[this.pageEntries * ENTRY_BYTES];
+	}//end Constructor
+
+	public static RegionTablebase open(Path file) throws IOException
+	{
+		return open(file, DEFAULT_CACHED_PAGES);
+	}//end open
+
+	//Reads the header and page index, cachedPages pages of entries are kept in memory at most
+	public static RegionTablebase open(Path file, int cachedPages) throws IOException
+	{
+		RandomAccessFile input = new RandomAccessFile(file.toFile(), "r");
+		try {
+			if(input.length() < HEADER_BYTES)
+				throw new IOException(file + " is not a region tablebase");
+			byte[] header = new byte[HEADER_BYTES];
+			input.readFully(header);
+			ByteBuffer fields = ByteBuffer.wrap(header);
+			if(fields.getInt(0) != MAGIC || fields.getInt(4) != VERSION)
+				throw new IOException(file + " is not a region tablebase");
+			return new RegionTablebase(input, fields, Math.max(1, cachedPages));
+		}//end try
+		catch(IOException e) {
+			input.close();
+			throw e;
+		}//end catch
+	}//end open
+
+	public void close() throws IOException
+	{
+		this.file.close();
+	}//end close
+
+	//Largest number of empty squares a region can have and still be in the table
+	public int getMaxRegionSize()
+	{
+		return this.maxRegionSize;
+	}//end getMaxRegionSize
+
+	public int size()
+	{
+		return this.entryCount;
+	}//end size
+
+	//Longest path from square through region (Board.findRegion) on a board of the given dimension, or UNKNOWN.
+	//Search threads share one table, so probes take turns with the page cache.
+	public synchronized int probe(long region, int square, int dimension)
+	{
+		if(region == 0)
+			return 0;
+		if(Long.bitCount(region) > this.maxRegionSize)
+			return UNKNOWN;
+		long framed = Symmetry.toFrame(region, dimension);
+		int framedSquare = (square / dimension) * Symmetry.FRAME + square % dimension;
+		int canonical = Symmetry.canonicalTransform(framed, framedSquare);
+		int transform = canonical >>> 8;
+		int shift = canonical & 0xFF;
+		long key = Symmetry.transform(framed, transform) >>> shift;
+		int start = Long.numberOfTrailingZeros(Symmetry.transform(1L << framedSquare, transform)) - shift;
+
+		//Last page whose first entry is not past the key
+		int low = 0;
+		int high = this.indexStarts.length - 1;
+		int page = -1;
+		while(low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			if(compare(this.indexStarts[middle], this.indexRegions[middle], start, key) <= 0)
+			{
+				page = middle;
+				low = middle + 1;
+			}//end if
+			else
+				high = middle - 1;
+		}//end while
+		if(page < 0)
+			return UNKNOWN;
+
+		int slot;
+		try {
+			slot = loadPage(page);
+		}
+		catch(IOException e) {
+			return UNKNOWN;//The solver can still answer
+		}
+		byte[] starts = this.pageStarts[slot];
+		long[] regions = this.pageRegions[slot];
+		low = 0;
+		high = this.pageSizes[slot] - 1;
+		while(low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			int order = compare(starts[middle], regions[middle], start, key);
+			if(order < 0)
+				low = middle + 1;
+			else if(order > 0)
+				high = middle - 1;
+			else
+				return this.pageLengths[slot][middle];
+		}//end while
+		return UNKNOWN;
+	}//end probe
+
+	//Cache slot holding page, reading it over the least recently used page if it is not cached
+	private int loadPage(int page) throws IOException
+	{
+		int oldest = 0;
+		for(int i = 0; i < this.cachedPage.length; i++)
+		{
+			if(this.cachedPage[i] == page)
+			{
+				this.lastUsed[i] = ++this.tick;
+				return i;
+			}//end if
+			if(this.lastUsed[i] < this.lastUsed[oldest])
+				oldest = i;
+		}//end for
+
+		int count = Math.min(this.pageEntries, this.entryCount - page * this.pageEntries);
+		this.cachedPage[oldest] = -1;//Not valid again until the read completes
+		this.file.seek(this.entriesOffset + (long)page * this.pageEntries * ENTRY_BYTES);
+		this.file.readFully(this.readBuffer, 0, count * ENTRY_BYTES);
+		ByteBuffer entries = ByteBuffer.wrap(this.readBuffer);
+		for(int i = 0; i < count; i++)
+		{
+			this.pageStarts[oldest][i] = entries.get();
+			this.pageRegions[oldest][i] = entries.getLong();
+			this.pageLengths[oldest][i] = entries.get();
+		}//end for
+		this.pageSizes[oldest] = count;
+		this.cachedPage[oldest] = page;
+		this.lastUsed[oldest] = ++this.tick;
+		return oldest;
+	}//end loadPage
+
+	private static int compare(int start, long region, int otherStart, long otherRegion)
+	{
+		if(start != otherStart)
+			return start < otherStart ? -1 : 1;
+		return Long.compare(region, otherRegion);
+	}//end compare
+
+	//Writes count entries, which must already be canonical, sorted by start then region, with none repeated
+	public static void write(Path file, int maxRegionSize, byte[] starts, long[] regions, byte[] lengths, int count) throws IOException
+	{
+		int pageCount = (count + PAGE_ENTRIES - 1) / PAGE_ENTRIES;
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(maxRegionSize);
+			out.writeInt(count);
+			out.writeInt(PAGE_ENTRIES);
+			for(int page = 0; page < pageCount; page++)
+			{
+				out.writeByte(starts[page * PAGE_ENTRIES]);
+				out.writeLong(regions[page * PAGE_ENTRIES]);
+			}//end for
+			for(int i = 0; i < count; i++)
+			{
+				out.writeByte(starts[i]);
+				out.writeLong(regions[i]);
+				out.writeByte(lengths[i]);
+			}//end for
+		}//end try
+	}//end write
+}//end RegionTablebase
@@ -0,0 +1,38 @@
+package isolation;
+
+import java.awt.Point;
+
+//What a program driving an engine needs from it, whatever kind of search it runs.
+//Adversarial (alpha-beta), MonteCarloSearch and HybridEngine implement it; EngineOptions picks one.
+public interface SearchEngine
+{
+	//Chooses a move for the position within the move time, SearchStats.getSquare is -1 if there is none
+	SearchStats search(Board layout, int turnCount);
+
+	//Chooses a move with a fixed amount of work and no clock: a depth for alpha-beta,
+	//thousands of playouts for Monte Carlo
+	SearchStats searchFixed(Board layout, int limit);
+
+	default Point iterativeDeepening(Board layout, int turnCount)
+	{
+		return search(layout, turnCount).getMove();
+	}//end iterativeDeepening
+
+	void setMoveTimeMillis(long millis);
+
+	long getMoveTimeMillis();
+
+	//Number of threads working on each move
+	void setThreadCount(int threads);
+
+	//Ends the current search from another thread, it returns the best move found so far
+	void stop();
+
+	//Forgets everything learnt from earlier searches
+	void newGame();
+
+	//Stops any threads the engine keeps between moves
+	void shutdown();
+
+	SearchStats getLastStats();
+}//end SearchEngine
@@ -0,0 +1,28 @@
+package isolation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+//Flight Recorder event for one completed iteration of the deepening loop.
+//Disabled events cost a check of shouldCommit, the fields are only filled in when it is being recorded.
+@Name("isolation.SearchIteration")
+@Label("Search Iteration")
+@Category({"Isolation", "Search"})
+@Description("One completed depth of the iterative deepening search")
+final class SearchIterationEvent extends jdk.jfr.Event
+{
+	@Label("Depth")
+	int depth;
+
+	@Label("Nodes")
+	@Description("Nodes searched by this iteration, every thread included")
+	long nodes;
+
+	@Label("Score")
+	int score;
+
+	@Label("Best Move")
+	String bestMove;
+}//end SearchIterationEvent
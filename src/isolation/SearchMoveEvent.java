@@ -0,0 +1,42 @@
+package isolation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+//Flight Recorder event for a whole move decision, from the start of the search to the move returned
+@Name("isolation.SearchMove")
+@Label("Search Move")
+@Category({"Isolation", "Search"})
+@Description("One move chosen by the engine")
+final class SearchMoveEvent extends jdk.jfr.Event
+{
+	@Label("Move")
+	String move;
+
+	@Label("Source")
+	@Description("search, book or endgame")
+	String source;
+
+	@Label("Depth")
+	int depth;
+
+	@Label("Score")
+	int score;
+
+	@Label("Nodes")
+	long nodes;
+
+	@Label("Nodes Per Second")
+	long nodesPerSecond;
+
+	@Label("Effective Branching Factor")
+	double branchingFactor;
+
+	@Label("Cutoff Rate")
+	double cutoffRate;
+
+	@Label("Hash Hit Rate")
+	double hashHitRate;
+}//end SearchMoveEvent
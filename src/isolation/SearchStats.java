@@ -0,0 +1,220 @@
+package isolation;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+//What one search did: the move it chose, how deep it got, and how the nodes were spent.
+//Counters are summed over every thread that took part in the search.
+public class SearchStats
+{
+	//Where the move came from
+	public static final String SEARCH = "search";
+	public static final String BOOK = "book";
+	public static final String ENDGAME = "endgame";
+	public static final String MCTS = "mcts";
+
+	//Indexes into the counters every search thread keeps
+	static final int EXPANDED = 0;//Nodes whose moves were generated and searched
+	static final int CUTOFFS = 1;
+	static final int FIRST_MOVE_CUTOFFS = 2;//Cutoffs caused by the first move tried
+	static final int HASH_PROBES = 3;
+	static final int HASH_HITS = 4;
+	static final int HASH_CUTOFFS = 5;//Hits deep enough to settle the node without searching it
+	static final int PARTITION_POSITIONS = 6;//Positions with the players walled off
+	static final int PARTITIONS_SOLVED = 7;
+	static final int TABLEBASE_PROBES = 8;
+	static final int TABLEBASE_HITS = 9;
+	static final int ASPIRATION_RESEARCHES = 10;//Root searches repeated because the score fell outside the window
+	static final int PVS_RESEARCHES = 11;//Null window searches that beat alpha and were searched again in full
+	static final int REDUCTIONS = 12;//Late moves searched a ply shallower first
+	static final int REDUCTION_RESEARCHES = 13;//Reduced searches that beat alpha and were searched again at full depth
+	static final int FUTILITY_PRUNED = 14;//Moves skipped near the horizon
+	static final int COUNTER_COUNT = 15;
+
+	private int move;//Square moved to, -1 for none
+	private int dimension;
+	private int score;
+	private String source;
+	private int depth;
+	private long nodes;
+	private long elapsedNanos;
+	private long[] counters;
+	private int iterations;
+	private long[] iterationNodes;//Nodes of each completed iteration on its own, not cumulative
+	private long[] iterationNanos;
+
+	SearchStats()
+	{
+		this.move = -1;
+		this.source = SEARCH;
+		this.counters = new long[COUNTER_COUNT];
+		this.iterationNodes = new long[8];
+		this.iterationNanos = new long[8];
+	}//end Constructor
+
+	void recordIteration(int depth, long nodes, long nanos)
+	{
+		if(this.iterations == this.iterationNodes.length)
+		{
+			this.iterationNodes = Arrays.copyOf(this.iterationNodes, this.iterations * 2);
+			this.iterationNanos = Arrays.copyOf(this.iterationNanos, this.iterations * 2);
+		}//end if
+		this.iterationNodes[this.iterations] = nodes;
+		this.iterationNanos[this.iterations] = nanos;
+		this.iterations++;
+		this.depth = depth;
+	}//end recordIteration
+
+	void finish(int move, int dimension, int score, String source, long nodes, long elapsedNanos, long[] counters)
+	{
+		this.move = move;
+		this.dimension = dimension;
+		this.score = score;
+		this.source = source;
+		this.nodes = nodes;
+		this.elapsedNanos = elapsedNanos;
+		this.counters = counters;
+	}//end finish
+
+	//The move as a row and column for the game screen, (-1,-1) for none
+	public Point getMove()
+	{
+		return this.move < 0 ? new Point(-1,-1) : new Point(this.move / this.dimension, this.move % this.dimension);
+	}//end getMove
+
+	//The square moved to, or -1 when there was no legal move
+	public int getSquare()
+	{
+		return this.move;
+	}//end getSquare
+
+	//Score of the last completed iteration from the searching side's point of view, 0 for book and endgame moves
+	//Monte Carlo scores are the chosen move's win rate, from -1000 (always lost) to 1000
+	public int getScore()
+	{
+		return this.score;
+	}//end getScore
+
+	public String getSource()
+	{
+		return this.source;
+	}//end getSource
+
+	//Deepest iteration that finished, 0 when the move came from the book or the endgame solver
+	public int getDepth()
+	{
+		return this.depth;
+	}//end getDepth
+
+	public long getNodes()
+	{
+		return this.nodes;
+	}//end getNodes
+
+	public long getElapsedNanos()
+	{
+		return this.elapsedNanos;
+	}//end getElapsedNanos
+
+	public long getNodesPerSecond()
+	{
+		return this.elapsedNanos == 0 ? 0 : (long)(this.nodes * 1e9 / this.elapsedNanos);
+	}//end getNodesPerSecond
+
+	public int getIterations()
+	{
+		return this.iterations;
+	}//end getIterations
+
+	public long getIterationNodes(int iteration)
+	{
+		return this.iterationNodes[iteration];
+	}//end getIterationNodes
+
+	public long getIterationNanos(int iteration)
+	{
+		return this.iterationNanos[iteration];
+	}//end getIterationNanos
+
+	//Growth in nodes from the second last completed iteration to the last,
+	//or the depth-th root of the nodes when only one iteration finished
+	public double getEffectiveBranchingFactor()
+	{
+		if(this.iterations >= 2 && this.iterationNodes[this.iterations - 2] > 0)
+			return (double)this.iterationNodes[this.iterations - 1] / this.iterationNodes[this.iterations - 2];
+		if(this.depth > 0 && this.nodes > 0)
+			return Math.pow(this.nodes, 1.0 / this.depth);
+		return 0;
+	}//end getEffectiveBranchingFactor
+
+	//Share of expanded nodes that ended in a beta cutoff
+	public double getCutoffRate()
+	{
+		return rate(this.counters[CUTOFFS], this.counters[EXPANDED]);
+	}//end getCutoffRate
+
+	//Share of cutoffs found by the first move tried, a measure of move ordering
+	public double getFirstMoveCutoffRate()
+	{
+		return rate(this.counters[FIRST_MOVE_CUTOFFS], this.counters[CUTOFFS]);
+	}//end getFirstMoveCutoffRate
+
+	public double getHashHitRate()
+	{
+		return rate(this.counters[HASH_HITS], this.counters[HASH_PROBES]);
+	}//end getHashHitRate
+
+	//Share of probes that ended the node on the stored result alone
+	public double getHashCutoffRate()
+	{
+		return rate(this.counters[HASH_CUTOFFS], this.counters[HASH_PROBES]);
+	}//end getHashCutoffRate
+
+	//Share of walled-off positions the tablebase or endgame solver scored exactly
+	public double getPartitionSolveRate()
+	{
+		return rate(this.counters[PARTITIONS_SOLVED], this.counters[PARTITION_POSITIONS]);
+	}//end getPartitionSolveRate
+
+	public double getTablebaseHitRate()
+	{
+		return rate(this.counters[TABLEBASE_HITS], this.counters[TABLEBASE_PROBES]);
+	}//end getTablebaseHitRate
+
+	public long getAspirationResearches()
+	{
+		return this.counters[ASPIRATION_RESEARCHES];
+	}//end getAspirationResearches
+	
+	//Share of expanded nodes where a null window search had to be repeated
+	public double getPvsResearchRate()
+	{
+		return rate(this.counters[PVS_RESEARCHES], this.counters[EXPANDED]);
+	}//end getPvsResearchRate
+
+	//Share of reduced searches that had to be repeated at full depth
+	public double getReductionResearchRate()
+	{
+		return rate(this.counters[REDUCTION_RESEARCHES], this.counters[REDUCTIONS]);
+	}//end getReductionResearchRate
+
+	public long getFutilityPruned()
+	{
+		return this.counters[FUTILITY_PRUNED];
+	}//end getFutilityPruned
+
+	private static double rate(long part, long whole)
+	{
+		return whole == 0 ? 0 : (double)part / whole;
+	}//end rate
+
+	public String toString()
+	{
+		return String.format("%s depth %d score %d nodes %d nps %d ebf %.2f cutoffs %.1f%% first %.1f%% hash %.1f%% solved %.1f%% tablebase %.1f%%"
+				+ " researches %d pvs %.1f%% reduced %d re %.1f%% futile %d",
+				this.source, this.depth, this.score, this.nodes, getNodesPerSecond(), getEffectiveBranchingFactor(),
+				100 * getCutoffRate(), 100 * getFirstMoveCutoffRate(), 100 * getHashHitRate(),
+				100 * getPartitionSolveRate(), 100 * getTablebaseHitRate(), getAspirationResearches(), 100 * getPvsResearchRate(),
+				this.counters[REDUCTIONS], 100 * getReductionResearchRate(), getFutilityPruned());
+	}//end toString
+}//end SearchStats
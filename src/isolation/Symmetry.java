@@ -0,0 +1,131 @@
+package isolation;
+
+//The eight rotations and reflections of an 8x8 bitboard (bit row * 8 + col) and of square numbers on any square board.
+//Transform t mirrors the columns if bit 0 is set, then flips the rows if bit 1 is set,
+//then swaps rows and columns if bit 2 is set.
+final class Symmetry
+{
+	static final int TRANSFORMS = 8;
+	static final int FRAME = 8;//Masks are handled in an 8x8 frame whatever the board size
+
+	private Symmetry()
+	{
+	}//end Constructor
+
+	//Reverses the columns, (row, col) becomes (row, 7 - col)
+	static long mirrorColumns(long mask)
+	{
+		mask = ((mask >>> 1) & 0x5555555555555555L) | ((mask & 0x5555555555555555L) << 1);
+		mask = ((mask >>> 2) & 0x3333333333333333L) | ((mask & 0x3333333333333333L) << 2);
+		return ((mask >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((mask & 0x0F0F0F0F0F0F0F0FL) << 4);
+	}//end mirrorColumns
+
+	//Reverses the rows, (row, col) becomes (7 - row, col)
+	static long flipRows(long mask)
+	{
+		return Long.reverseBytes(mask);
+	}//end flipRows
+
+	//Swaps rows and columns, (row, col) becomes (col, row)
+	static long transpose(long mask)
+	{
+		long swap = 0x0F0F0F0F00000000L & (mask ^ (mask << 28));
+		mask ^= swap ^ (swap >>> 28);
+		swap = 0x3333000033330000L & (mask ^ (mask << 14));
+		mask ^= swap ^ (swap >>> 14);
+		swap = 0x5500550055005500L & (mask ^ (mask << 7));
+		return mask ^ swap ^ (swap >>> 7);
+	}//end transpose
+
+	//Where square (row * dimension + col) of a dimension x dimension board lands under transform
+	static int transformSquare(int square, int transform, int dimension)
+	{
+		int row = square / dimension, col = square % dimension;
+		if((transform & 1) != 0)
+			col = dimension - 1 - col;
+		if((transform & 2) != 0)
+			row = dimension - 1 - row;
+		if((transform & 4) != 0)
+			return col * dimension + row;
+		return row * dimension + col;
+	}//end transformSquare
+
+	//The transform that undoes transform; only the two quarter turns are not their own inverse
+	static int inverse(int transform)
+	{
+		return transform == 5 ? 6 : transform == 6 ? 5 : transform;
+	}//end inverse
+
+	static long transform(long mask, int transform)
+	{
+		if((transform & 1) != 0)
+			mask = mirrorColumns(mask);
+		if((transform & 2) != 0)
+			mask = flipRows(mask);
+		if((transform & 4) != 0)
+			mask = transpose(mask);
+		return mask;
+	}//end transform
+
+	//How far mask can be shifted down so its topmost row and leftmost column become row 0 and column 0
+	static int originShift(long mask)
+	{
+		long columns = mask | (mask >>> 32);
+		columns |= columns >>> 16;
+		columns |= columns >>> 8;
+		return (Long.numberOfTrailingZeros(mask) >>> 3) * FRAME + Long.numberOfTrailingZeros(columns & 0xFF);
+	}//end originShift
+
+	//Moves a mask from a smaller board's square numbering into the 8x8 frame
+	static long toFrame(long mask, int dimension)
+	{
+		if(dimension == FRAME)
+			return mask;
+		long framed = 0;
+		while(mask != 0)
+		{
+			int square = Long.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+			framed |= 1L << ((square / dimension) * FRAME + square % dimension);
+		}//end while
+		return framed;
+	}//end toFrame
+
+	//Transform and origin shift giving the smallest image of a region with a player on start,
+	//packed as (transform << 8) | shift. Images are ordered by the start square first, then the region.
+	static int canonicalTransform(long region, int start)
+	{
+		int best = 0;
+		int bestStart = 0;
+		long bestRegion = 0;
+		for(int t = 0; t < TRANSFORMS; t++)
+		{
+			long startBit = transform(1L << start, t);
+			long image = transform(region, t);
+			int shift = originShift(image | startBit);
+			int imageStart = Long.numberOfTrailingZeros(startBit) - shift;
+			image >>>= shift;
+			if(t == 0 || imageStart < bestStart || (imageStart == bestStart && image < bestRegion))
+			{
+				best = (t << 8) | shift;
+				bestStart = imageStart;
+				bestRegion = image;
+			}//end if
+		}//end for
+		return best;
+	}//end canonicalTransform
+
+	//Smallest translated image of mask under the eight transforms
+	static long canonicalShape(long mask)
+	{
+		long best = 0;
+		for(int t = 0; t < TRANSFORMS; t++)
+		{
+			long image = transform(mask, t);
+			image >>>= originShift(image);
+			if(t == 0 || image < best)
+				best = image;
+		}//end for
+		return best;
+	}//end canonicalShape
+}//end Symmetry
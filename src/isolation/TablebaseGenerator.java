@@ -0,0 +1,147 @@
+package isolation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+//Offline generator for the region tablebase.
+//Grows every king-connected shape that fits in an 8x8 frame one square at a time, keeping one image per
+//rotation or reflection, then solves each square of each shape as the player's square with the rest as its region.
+//The number of shapes grows about six times per extra square, so the default stops at regions of 8 squares
+//(around a million entries); 9 takes a few minutes and 10 needs several gigabytes of memory.
+//Usage: TablebaseGenerator [largest region] [output file]
+public class TablebaseGenerator
+{
+	public static final int DEFAULT_MAX_REGION_SIZE = 8;
+
+	private int maxRegionSize;
+	private long[][] regionsByStart;//Canonical regions collected for each canonical start square
+	private int[] counts;
+
+	public TablebaseGenerator(int maxRegionSize)
+	{
+		if(maxRegionSize < 1 || maxRegionSize > 63)
+			throw new IllegalArgumentException("Largest region must be between 1 and 63 squares");
+		this.maxRegionSize = maxRegionSize;
+		this.regionsByStart = new long[Symmetry.FRAME * Symmetry.FRAME][1024];
+		this.counts = new int[Symmetry.FRAME * Symmetry.FRAME];
+	}//end Constructor
+
+	public static void main(String[] args) throws IOException
+	{
+		int maxRegionSize = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAX_REGION_SIZE;
+		Path file = Paths.get(args.length > 1 ? args[1] : RegionTablebase.DEFAULT_FILE);
+		TablebaseGenerator generator = new TablebaseGenerator(maxRegionSize);
+		generator.generate();
+		int count = generator.write(file);
+		System.out.println("Wrote " + count + " regions to " + file);
+	}//end main
+
+	//Collects every canonical (start square, region) pair with a region of up to maxRegionSize squares
+	public void generate()
+	{
+		long[] shapes = {1L};
+		for(int size = 2; size <= this.maxRegionSize + 1; size++)
+		{
+			shapes = grow(shapes);
+			for(long shape : shapes)
+			{
+				long cells = shape;
+				while(cells != 0)
+				{
+					int start = Long.numberOfTrailingZeros(cells);
+					cells &= cells - 1;
+					long region = shape & ~(1L << start);
+					int canonical = Symmetry.canonicalTransform(region, start);
+					int transform = canonical >>> 8;
+					int shift = canonical & 0xFF;
+					add(Long.numberOfTrailingZeros(Symmetry.transform(1L << start, transform)) - shift,
+							Symmetry.transform(region, transform) >>> shift);
+				}//end while
+			}//end for
+			System.out.println("Regions of " + (size - 1) + " squares: " + shapes.length + " shapes");
+		}//end for
+	}//end generate
+
+	//Every shape made by adding one king step to a shape in shapes, one canonical image each, sorted
+	private static long[] grow(long[] shapes)
+	{
+		long[] grown = new long[Math.max(16, shapes.length * 8)];
+		int count = 0;
+		for(long shape : shapes)
+		{
+			//Shapes sit in the corner, so squares below and right are tried there and squares above or left
+			//after moving it one row down, one column right or both, as far as the frame leaves room
+			long columns = shape | (shape >>> 32);
+			columns |= columns >>> 16;
+			columns |= columns >>> 8;
+			int rowShift = 63 - Long.numberOfLeadingZeros(shape) < 56 ? Symmetry.FRAME : 0;
+			int columnShift = (columns & 0x80) == 0 ? 1 : 0;
+			for(long placed : new long[] {shape, shape << rowShift, shape << columnShift, shape << (rowShift + columnShift)})
+			{
+				long additions = Board.neighbours(placed, Symmetry.FRAME) & ~placed;
+				while(additions != 0)
+				{
+					long addition = additions & -additions;
+					additions &= additions - 1;
+					if(count + 1 >= grown.length)
+						grown = Arrays.copyOf(grown, grown.length * 2);
+					grown[count++] = Symmetry.canonicalShape(placed | addition);
+				}//end while
+			}//end for
+		}//end for
+		return unique(grown, count);
+	}//end grow
+
+	private void add(int start, long region)
+	{
+		long[] regions = this.regionsByStart[start];
+		if(this.counts[start] == regions.length)
+			this.regionsByStart[start] = regions = Arrays.copyOf(regions, regions.length * 2);
+		regions[this.counts[start]++] = region;
+	}//end add
+
+	//Sorts the first count values and drops repeats
+	private static long[] unique(long[] values, int count)
+	{
+		Arrays.sort(values, 0, count);
+		int kept = 0;
+		for(int i = 0; i < count; i++)
+		{
+			if(kept == 0 || values[i] != values[kept - 1])
+				values[kept++] = values[i];
+		}//end for
+		return Arrays.copyOf(values, kept);
+	}//end unique
+
+	//Solves every collected region and writes the table, returns the number of entries
+	public int write(Path file) throws IOException
+	{
+		int total = 0;
+		for(int start = 0; start < this.counts.length; start++)
+		{
+			this.regionsByStart[start] = unique(this.regionsByStart[start], this.counts[start]);
+			this.counts[start] = this.regionsByStart[start].length;
+			total += this.counts[start];
+		}//end for
+
+		byte[] starts = new byte[total];
+		long[] regions = new long[total];
+		byte[] lengths = new byte[total];
+		EndgameSolver solver = new EndgameSolver();
+		int i = 0;
+		for(int start = 0; start < this.counts.length; start++)
+		{
+			for(long region : this.regionsByStart[start])
+			{
+				starts[i] = (byte)start;
+				regions[i] = region;
+				lengths[i] = (byte)solver.longestPath(Symmetry.FRAME, start, region);
+				i++;
+			}//end for
+		}//end for
+		RegionTablebase.write(file, this.maxRegionSize, starts, regions, lengths, total);
+		return total;
+	}//end write
+}//end TablebaseGenerator
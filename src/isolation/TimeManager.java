@@ -0,0 +1,94 @@
+package isolation;
+
+//Keeps the deadlines of one move in nanoseconds.
+//The soft limit decides whether another iteration is worth starting, the hard limit aborts the search.
+public class TimeManager
+{
+	//The search polls the clock once every this many nodes (must be a power of two)
+	public static final int POLL_INTERVAL = 1024;
+	//Longest move budget, no game needs more and it keeps the deadlines far from overflowing in nanoseconds
+	public static final long MAX_BUDGET_MILLIS = 365L * 24 * 60 * 60 * 1000;
+	private static final long NANOS_PER_MILLI = 1000000L;
+	private static final long MAX_SAFETY_MARGIN = 50 * NANOS_PER_MILLI;
+
+	private long startTime;
+	private long softDeadline;
+	private long hardDeadline;
+	private volatile boolean stopped;
+
+	public TimeManager()
+	{
+		this.stopped = false;
+	}//end Default Constructor
+
+	//Starts the clock for a move that may take at most budgetMillis, clamped to [0, MAX_BUDGET_MILLIS]
+	public void start(long budgetMillis, Board layout)
+	{
+		long budget = Math.max(0, Math.min(budgetMillis, MAX_BUDGET_MILLIS)) * NANOS_PER_MILLI;
+		this.startTime = System.nanoTime();
+		this.stopped = false;
+		//Leaves room to unwind the search and print the move before the limit is really up
+		this.hardDeadline = this.startTime + budget - Math.min(budget / 20, MAX_SAFETY_MARGIN);
+		this.softDeadline = this.startTime + (long)(budget * phaseFactor(layout));
+	}//end start
+
+	//Starts the clock with no deadline, the search only ends when stop() is called
+	public void startInfinite()
+	{
+		this.startTime = System.nanoTime();
+		this.stopped = false;
+		this.hardDeadline = Long.MAX_VALUE;
+		this.softDeadline = Long.MAX_VALUE;
+	}//end startInfinite
+
+	//Share of the budget worth spending in this phase of the game
+	//Early moves rarely change the outcome, the middlegame decides which player gets walled in
+	private double phaseFactor(Board layout)
+	{
+		int squares = layout.getBoardDimension() * layout.getBoardDimension();
+		double empty = (double)layout.countEmptySquares() / squares;
+		if(empty > 0.8)
+			return 0.4;//Opening
+		if(empty > 0.4)
+			return 0.8;//Middlegame
+		return 0.6;//Endgame, the regions are small enough for the search to finish early anyway
+	}//end phaseFactor
+
+	//Whether an iteration that took lastIterationNanos last time can be started and finished
+	public boolean canStartIteration(long lastIterationNanos, double branchingFactor)
+	{
+		if(this.stopped)
+			return false;
+		long now = System.nanoTime();
+		if(this.softDeadline != Long.MAX_VALUE && now - this.softDeadline >= 0)
+			return false;
+		//The next iteration usually costs the last one times the branching factor
+		long predicted = (long)(lastIterationNanos * branchingFactor);
+		return this.hardDeadline == Long.MAX_VALUE || predicted < this.hardDeadline - now;
+	}//end canStartIteration
+
+	public boolean hardLimitReached()
+	{
+		if(this.stopped)
+			return true;
+		if(this.hardDeadline != Long.MAX_VALUE && System.nanoTime() - this.hardDeadline >= 0)
+			this.stopped = true;
+		return this.stopped;
+	}//end hardLimitReached
+
+	//Ends the search at its next poll, from any thread
+	public void stop()
+	{
+		this.stopped = true;
+	}//end stop
+
+	public boolean isStopped()
+	{
+		return this.stopped;
+	}//end isStopped
+
+	public long elapsedNanos()
+	{
+		return System.nanoTime() - this.startTime;
+	}//end elapsedNanos
+}//end TimeManager
@@ -0,0 +1,343 @@
+package isolation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Headless engine-versus-engine matches.
+//Every random opening is played twice with the colours swapped, so neither engine profits from a lucky start.
+//Games run concurrently, each worker thread keeping its own engines, and the match can stop early once a
+//sequential probability ratio test (SPRT) has decided between two Elo hypotheses.
+//Usage: Tournament -engine <spec> -engine <spec> [-games N] [-concurrency N] [-openings plies]
+//                  [-seed N] [-dimension N] [-sprt elo0,elo1,alpha,beta] [-record file]
+//Engine specs are EngineOptions, e.g. -engine name=new,time=200 -engine name=old,time=200,threads=2
+//-record appends every finished game to a GameLogWriter log, the training data of WeightTuner.
+public class Tournament
+{
+	private EngineOptions[] engines;
+	private int games;
+	private int concurrency;
+	private int openingPlies;
+	private long seed;
+	private int dimension;
+	private double[] sprt;//elo0, elo1, alpha, beta, or null to play every game
+	private GameLogWriter record;//Log of every finished game, or null
+
+	//Results from the first engine's side
+	private int wins;
+	private int losses;
+	private int xWins;//Games won by whoever played 'X' and so moved first
+	private long totalPlies;
+	private long startTime;
+	private AtomicBoolean stopped;
+	private String sprtResult;
+
+	public Tournament(EngineOptions first, EngineOptions second, int games, int concurrency)
+	{
+		this.engines = new EngineOptions[] {first, second};
+		this.games = games;
+		this.concurrency = Math.max(1, concurrency);
+		this.openingPlies = 4;
+		this.seed = 1;
+		this.dimension = 8;
+		this.stopped = new AtomicBoolean(false);
+	}//end Constructor
+
+	public static void main(String[] args) throws InterruptedException, IOException
+	{
+		List<EngineOptions> engines = new ArrayList<EngineOptions>();
+		int games = 1000;
+		int concurrency = -1;
+		int openingPlies = 4;
+		long seed = 1;
+		int dimension = 8;
+		double[] sprt = null;
+		String record = null;
+		for(int i = 0; i < args.length; i++)
+		{
+			switch(args[i])
+			{
+				case "-engine": engines.add(EngineOptions.parse(args[++i])); break;
+				case "-games": games = Integer.parseInt(args[++i]); break;
+				case "-concurrency": concurrency = Integer.parseInt(args[++i]); break;
+				case "-openings": openingPlies = Integer.parseInt(args[++i]); break;
+				case "-seed": seed = Long.parseLong(args[++i]); break;
+				case "-dimension": dimension = Integer.parseInt(args[++i]); break;
+				case "-record": record = args[++i]; break;
+				case "-sprt":
+					String[] bounds = args[++i].split(",");
+					sprt = new double[] {Double.parseDouble(bounds[0]), Double.parseDouble(bounds[1]),
+							bounds.length > 2 ? Double.parseDouble(bounds[2]) : 0.05, bounds.length > 3 ? Double.parseDouble(bounds[3]) : 0.05};
+					break;
+				default: throw new IllegalArgumentException("Unknown argument " + args[i]);
+			}//end switch
+		}//end for
+		if(engines.size() != 2)
+			throw new IllegalArgumentException("Give exactly two -engine specs");
+		if(concurrency <= 0)
+		{
+			//Each game searches with up to the larger thread count of the two engines
+			int threadsPerGame = Math.max(engines.get(0).getThreads(), engines.get(1).getThreads());
+			concurrency = Math.max(1, Runtime.getRuntime().availableProcessors() / threadsPerGame);
+		}//end if
+
+		Tournament tournament = new Tournament(engines.get(0), engines.get(1), games, concurrency);
+		tournament.setOpeningPlies(openingPlies);
+		tournament.setSeed(seed);
+		tournament.setDimension(dimension);
+		tournament.setSprt(sprt);
+		if(record == null)
+			tournament.run();
+		else
+		{
+			try(GameLogWriter writer = GameLogWriter.open(Paths.get(record))) {
+				tournament.setRecord(writer);
+				tournament.run();
+			}
+		}//end else
+		System.out.println(tournament.summary());
+	}//end main
+
+	public void setOpeningPlies(int plies)
+	{
+		this.openingPlies = plies;
+	}//end setOpeningPlies
+
+	public void setSeed(long seed)
+	{
+		this.seed = seed;
+	}//end setSeed
+
+	public void setDimension(int dimension)
+	{
+		this.dimension = dimension;
+	}//end setDimension
+
+	public void setSprt(double[] sprt)
+	{
+		this.sprt = sprt;
+	}//end setSprt
+
+	public void setRecord(GameLogWriter record)
+	{
+		this.record = record;
+	}//end setRecord
+
+	//Plays the match, returning when every game is over or the SPRT has stopped it
+	public void run() throws InterruptedException
+	{
+		System.out.println("Engine A: " + this.engines[0]);
+		System.out.println("Engine B: " + this.engines[1]);
+		System.out.println(this.games + " games, " + this.concurrency + " at a time");
+		this.startTime = System.nanoTime();
+
+		List<SearchEngine> created = new ArrayList<SearchEngine>();
+		//pair[engine][0] plays 'X' and pair[engine][1] plays 'O', one set per worker thread
+		ThreadLocal<SearchEngine[][]> workerEngines = ThreadLocal.withInitial(() -> {
+			SearchEngine[][] pair = new SearchEngine[2][2];
+			for(int e = 0; e < 2; e++)
+			{
+				pair[e][0] = this.engines[e].createEngine('X');
+				pair[e][1] = this.engines[e].createEngine('O');
+			}//end for
+			synchronized(created)
+			{
+				for(SearchEngine[] engine : pair)
+				{
+					created.add(engine[0]);
+					created.add(engine[1]);
+				}//end for
+			}//end synchronized
+			return pair;
+		});
+
+		ExecutorService pool = Executors.newFixedThreadPool(this.concurrency);
+		for(int game = 0; game < this.games; game++)
+		{
+			int opening = game / 2;
+			boolean swapped = game % 2 == 1;
+			pool.submit(() -> {
+				if(this.stopped.get())
+					return;
+				try {
+					int firstEngine = swapped ? 1 : 0;
+					SearchEngine[][] pair = workerEngines.get();
+					int[] result = playGame(randomOpening(this.seed * 1000003L + opening), firstEngine, pair);
+					recordResult(result[0] == 0, result[0] == firstEngine, result[1]);//firstEngine played 'X'
+				}
+				catch(RuntimeException e) {
+					e.printStackTrace();
+				}
+			});
+		}//end for
+		pool.shutdown();
+		pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+		for(SearchEngine engine : created)
+			engine.shutdown();
+	}//end run
+
+	//Random moves from the start that leave both players free to move, the same for both games of a pair
+	private Board randomOpening(long openingSeed)
+	{
+		Random random = new Random(openingSeed);
+		int[] moves = new int[this.dimension * this.dimension];
+		while(true)
+		{
+			Board board = new Board(this.dimension, 'X');
+			char side = 'X';
+			int ply = 0;
+			while(ply < this.openingPlies)
+			{
+				int count = board.generateMoves(side, moves);
+				if(count == 0)
+					break;
+				board.makeMove(side, moves[random.nextInt(count)]);
+				side = side == 'X' ? 'O' : 'X';
+				ply++;
+			}//end while
+			if(ply == this.openingPlies && board.countAvailableSpaces(side) > 0)
+				return board;
+		}//end while
+	}//end randomOpening
+
+	//Plays one game from opening with firstEngine moving first, returns {winning engine, plies played}
+	private int[] playGame(Board opening, int firstEngine, SearchEngine[][] pair)
+	{
+		Board board = new Board(opening);
+		int turnCount = opening.getMoveCount();
+		char side = turnCount % 2 == 0 ? 'X' : 'O';
+		int engineToMove = side == 'X' ? firstEngine : 1 - firstEngine;
+		pair[firstEngine][0].newGame();
+		pair[1 - firstEngine][1].newGame();
+		boolean forfeited = false;
+		while(board.countAvailableSpaces(side) > 0)
+		{
+			SearchEngine engine = pair[engineToMove][side == 'X' ? 0 : 1];
+			int square = this.engines[engineToMove].chooseMove(engine, board, turnCount);
+			if(!board.isLegalMove(side, square))
+			{
+				System.out.println(this.engines[engineToMove].getName() + " played an illegal move and forfeits");
+				forfeited = true;
+				break;
+			}//end if
+			board.makeMove(side, square);
+			side = side == 'X' ? 'O' : 'X';
+			engineToMove = 1 - engineToMove;
+			turnCount++;
+		}//end while
+		//The engine to move has no moves left (or forfeited) and loses
+		if(this.record != null)
+		{
+			String config = "X=" + this.engines[firstEngine] + " O=" + this.engines[1 - firstEngine];
+			try {
+				this.record.append(board, side == 'X' ? 'O' : 'X', forfeited, this.engines[firstEngine].getMoveTimeMillis(), config);
+			}
+			catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}//end if
+		return new int[] {1 - engineToMove, board.getMoveCount() - opening.getMoveCount()};
+	}//end playGame
+
+	private synchronized void recordResult(boolean firstEngineWon, boolean xWon, int plies)
+	{
+		if(this.stopped.get())
+			return;//Games still running when the test decided do not change its verdict
+		if(firstEngineWon)
+			this.wins++;
+		else
+			this.losses++;
+		if(xWon)
+			this.xWins++;
+		this.totalPlies += plies;
+		int played = this.wins + this.losses;
+		if(played % 10 == 0 || played == this.games)
+			System.out.println(progress());
+		if(this.sprt != null)
+		{
+			double llr = logLikelihoodRatio();
+			double lower = Math.log(this.sprt[3] / (1 - this.sprt[2]));
+			double upper = Math.log((1 - this.sprt[3]) / this.sprt[2]);
+			if(llr >= upper || llr <= lower)
+			{
+				this.sprtResult = llr >= upper ? "H1 accepted (A is at least " + this.sprt[1] + " Elo stronger)"
+						: "H0 accepted (A is at most " + this.sprt[0] + " Elo stronger)";
+				this.stopped.set(true);
+			}//end if
+		}//end if
+	}//end recordResult
+
+	//Log likelihood ratio of elo1 against elo0 for the results so far; games cannot be drawn,
+	//so each one is a single trial won with probability given by the Elo difference
+	private double logLikelihoodRatio()
+	{
+		double p0 = expectedScore(this.sprt[0]);
+		double p1 = expectedScore(this.sprt[1]);
+		return this.wins * Math.log(p1 / p0) + this.losses * Math.log((1 - p1) / (1 - p0));
+	}//end logLikelihoodRatio
+
+	private static double expectedScore(double elo)
+	{
+		return 1 / (1 + Math.pow(10, -elo / 400));
+	}//end expectedScore
+
+	private static double eloOf(double score)
+	{
+		score = Math.max(1e-6, Math.min(1 - 1e-6, score));
+		return -400 * Math.log10(1 / score - 1);
+	}//end eloOf
+
+	//Elo difference of A over B with the ends of its 95% confidence interval
+	public synchronized double[] elo()
+	{
+		int played = this.wins + this.losses;
+		if(played == 0)
+			return new double[] {0, 0, 0};
+		double score = (double)this.wins / played;
+		double margin = 1.96 * Math.sqrt(score * (1 - score) / played);
+		return new double[] {eloOf(score), eloOf(score - margin), eloOf(score + margin)};
+	}//end elo
+
+	public synchronized double gamesPerHour()
+	{
+		double hours = (System.nanoTime() - this.startTime) / 3.6e12;
+		return hours == 0 ? 0 : (this.wins + this.losses) / hours;
+	}//end gamesPerHour
+
+	private String progress()
+	{
+		double[] elo = elo();
+		String line = String.format("Games %d: A %d - %d B, Elo %+.1f [%+.1f, %+.1f], %.0f games/hour",
+				this.wins + this.losses, this.wins, this.losses, elo[0], elo[1], elo[2], gamesPerHour());
+		if(this.sprt != null)
+			line += String.format(", LLR %.2f", logLikelihoodRatio());
+		return line;
+	}//end progress
+
+	public synchronized String summary()
+	{
+		int played = this.wins + this.losses;
+		String summary = "Final: " + progress() + String.format("%nX won %.1f%%, %.1f plies per game",
+				played == 0 ? 0 : 100.0 * this.xWins / played, played == 0 ? 0 : (double)this.totalPlies / played);
+		if(this.sprt != null)
+			summary += "\nSPRT [" + this.sprt[0] + ", " + this.sprt[1] + "]: " + (this.sprtResult == null ? "no decision" : this.sprtResult);
+		return summary;
+	}//end summary
+
+	public synchronized int getWins()
+	{
+		return this.wins;
+	}//end getWins
+
+	public synchronized int getLosses()
+	{
+		return this.losses;
+	}//end getLosses
+}//end Tournament
@@ -0,0 +1,104 @@
+package isolation;
+
+import java.util.Arrays;
+
+//Fixed-size hash table of search results kept in two primitive arrays.
+//Each bucket has a depth-preferred slot followed by an always-replace slot.
+//Keys are stored XORed with their data so a half-written entry fails to match instead of being misread.
+public class TranspositionTable
+{
+	public static final int EXACT = 1;
+	public static final int LOWER_BOUND = 2;//Score failed high, the real value is at least score
+	public static final int UPPER_BOUND = 3;//Score failed low, the real value is at most score
+	public static final int NO_MOVE = -1;
+	private static final int ENTRY_BYTES = 16;//One long key plus one long of data
+
+	//Data layout: bits 0-15 move + 1, 16-17 bound, 18-25 depth, 26-31 age, 32-63 score
+	private long[] keys;
+	private long[] data;
+	private int bucketMask;
+	private int age;
+
+	public TranspositionTable(int sizeMB)
+	{
+		long entries = Math.max(2, ((long)sizeMB << 20) / ENTRY_BYTES);
+		int buckets = Integer.highestOneBit((int)Math.min(entries / 2, 1 << 29));
+		this.keys = new long[buckets * 2];
+		this.data = new long[buckets * 2];
+		this.bucketMask = buckets - 1;
+		this.age = 0;
+	}//end Constructor
+
+	//Called once per move so entries left over from earlier turns can be replaced first
+	public void newSearch()
+	{
+		this.age = (this.age + 1) & 0x3F;
+	}//end newSearch
+
+	public void clear()
+	{
+		Arrays.fill(this.keys, 0);
+		Arrays.fill(this.data, 0);
+	}//end clear
+
+	//Returns the packed data stored for key, or 0 if the position is not in the table
+	public long probe(long key)
+	{
+		int slot = ((int)key & this.bucketMask) << 1;
+		long entry = this.data[slot];
+		if((this.keys[slot] ^ entry) == key && entry != 0)
+			return entry;
+		entry = this.data[slot + 1];
+		if((this.keys[slot + 1] ^ entry) == key && entry != 0)
+			return entry;
+		return 0;
+	}//end probe
+
+	public void store(long key, int depth, int bound, int score, int move)
+	{
+		int slot = ((int)key & this.bucketMask) << 1;
+		long existing = this.data[slot];
+		boolean sameKey = (this.keys[slot] ^ existing) == key;
+
+		//The deep slot is only given up for the same position, an equal or deeper search, or a stale entry
+		if(!sameKey && depth < depthOf(existing) && ageOf(existing) == this.age)
+		{
+			slot++;
+			existing = this.data[slot];
+			sameKey = (this.keys[slot] ^ existing) == key;
+		}//end if
+		//Keeps the old best move when this search of the same position did not produce one
+		if(move == NO_MOVE && sameKey && existing != 0)
+			move = moveOf(existing);
+
+		long entry = ((long)score << 32) | ((long)this.age << 26) | ((long)Math.min(depth, 0xFF) << 18)
+				| ((long)bound << 16) | ((move + 1) & 0xFFFF);
+		this.data[slot] = entry;
+		this.keys[slot] = key ^ entry;
+	}//end store
+
+	public static int moveOf(long entry)
+	{
+		return (int)(entry & 0xFFFF) - 1;
+	}//end moveOf
+
+	public static int boundOf(long entry)
+	{
+		return (int)(entry >>> 16) & 0x3;
+	}//end boundOf
+
+	public static int depthOf(long entry)
+	{
+		return (int)(entry >>> 18) & 0xFF;
+	}//end depthOf
+
+	private static int ageOf(long entry)
+	{
+		return (int)(entry >>> 26) & 0x3F;
+	}//end ageOf
+
+	public static int scoreOf(long entry)
+	{
+		return (int)(entry >> 32);
+	}//end scoreOf
+}//end TranspositionTable
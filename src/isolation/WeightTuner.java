@@ -0,0 +1,365 @@
+package isolation;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+//Fits the EvaluationWeights to game results, Texel style: the evaluation of a position, scaled by a constant,
+//is read as the log odds that the side to move wins, and the weights are moved to make the recorded results
+//as likely as possible (logistic regression on the evaluation's features).
+//Positions come from a game log (Tournament -record, see GameLogWriter), every position a move was made from,
+//or from a text file of "<position> <winner>" lines. They are read once, in chunks, and boiled down to a file of
+//one byte per feature; every pass after that streams the feature file chunk by chunk, so neither file ever has
+//to fit in the heap. The work on each chunk is split over the cores with fork-join.
+//Usage: WeightTuner -in <games or positions> [-out file] [-start weights file] [-epochs N] [-rate R] [-threads N] [-chunk N]
+public class WeightTuner
+{
+	private static final int RECORD_BYTES = EvaluationWeights.FEATURE_COUNT + 1;//The features, then 1 if the side to move won
+	private static final int SPLIT = 4096;//Positions a fork-join task handles without splitting further
+
+	private ForkJoinPool pool;
+	private int chunkPositions;
+	private Path features;
+	private long positions;
+
+	public WeightTuner(int threads, int chunkPositions)
+	{
+		this.pool = new ForkJoinPool(threads);
+		this.chunkPositions = chunkPositions;
+	}//end Constructor
+
+	public static void main(String[] args) throws IOException
+	{
+		String in = null;
+		String out = EvaluationWeights.DEFAULT_FILE;
+		EvaluationWeights start = EvaluationWeights.ORIGINAL;
+		int epochs = 300;
+		double rate = 0.1;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int chunk = 1 << 18;
+		for(int i = 0; i < args.length; i++)
+		{
+			switch(args[i])
+			{
+				case "-in": in = args[++i]; break;
+				case "-out": out = args[++i]; break;
+				case "-start": start = EvaluationWeights.load(Paths.get(args[++i])); break;
+				case "-epochs": epochs = Integer.parseInt(args[++i]); break;
+				case "-rate": rate = Double.parseDouble(args[++i]); break;
+				case "-threads": threads = Integer.parseInt(args[++i]); break;
+				case "-chunk": chunk = Integer.parseInt(args[++i]); break;
+				default: throw new IllegalArgumentException("Unknown argument " + args[i]);
+			}//end switch
+		}//end for
+		if(in == null)
+			throw new IllegalArgumentException("Usage: WeightTuner -in <games or positions> [-out file] [-start weights file] [-epochs N]"
+					+ " [-rate R] [-threads N] [-chunk N]");
+
+		WeightTuner tuner = new WeightTuner(threads, chunk);
+		try {
+			tuner.extract(Paths.get(in));
+			System.out.println(tuner.positions + " positions");
+			double[] weights = toDoubles(start);
+			double scale = tuner.fitScale(weights);
+			double before = tuner.loss(weights, scale);
+			System.out.printf("Scale %.5f, loss %.6f with %s%n", scale, before, start);
+			tuner.fit(weights, scale, epochs, rate);
+			EvaluationWeights fitted = round(weights);
+			double after = tuner.loss(toDoubles(fitted), scale);
+			System.out.printf("Loss %.6f with %s%n", after, fitted);
+			fitted.write(Paths.get(out), String.format(" %d positions from %s, loss %.6f (%.6f before), scale %.5f",
+					tuner.positions, in, after, before, scale));
+			System.out.println("Wrote " + out);
+		}
+		finally {
+			tuner.close();
+		}
+	}//end main
+
+	//Turns the game log or positions file into the feature file
+	public void extract(Path file) throws IOException
+	{
+		this.features = Files.createTempFile("isolation-features", ".bin");
+		this.positions = 0;
+		try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(this.features), 1 << 16)) {
+			if(GameLogReader.isGameLog(file))
+				extractGames(file, out);
+			else
+				extractPositions(file, out);
+		}
+	}//end extract
+
+	//Replays every game of the log. Replaying is cheap next to parsing text, so this runs on one thread.
+	private void extractGames(Path log, OutputStream out) throws IOException
+	{
+		byte[] record = new byte[RECORD_BYTES];
+		int[] features = new int[EvaluationWeights.FEATURE_COUNT];
+		try(GameLogReader reader = GameLogReader.open(log)) {
+			while(reader.next())
+			{
+				if(reader.isForfeit())
+					continue;//Ended by a bug, not by the position
+				Board board = new Board(reader.getDimension(), 'X');
+				char side = 'X';
+				for(int i = 0; i < reader.getMoveCount(); i++)
+				{
+					Adversarial.evaluationFeatures(side, board, features);
+					for(int f = 0; f < features.length; f++)
+						record[f] = (byte)features[f];
+					record[features.length] = (byte)(reader.getWinner() == side ? 1 : 0);
+					out.write(record);
+					this.positions++;
+					board.makeMove(side, reader.getMove(i));
+					side = side == 'X' ? 'O' : 'X';
+				}//end for
+			}//end while
+		}
+	}//end extractGames
+
+	//Parses the text file a chunk of lines at a time, the lines of a chunk in parallel
+	private void extractPositions(Path positionsFile, OutputStream out) throws IOException
+	{
+		try(BufferedReader reader = Files.newBufferedReader(positionsFile, StandardCharsets.UTF_8)) {
+			List<String> lines = new ArrayList<String>(this.chunkPositions);
+			byte[] records = new byte[this.chunkPositions * RECORD_BYTES];
+			String line;
+			do
+			{
+				line = reader.readLine();
+				if(line != null && !line.trim().isEmpty())
+					lines.add(line);
+				if(lines.size() == this.chunkPositions || (line == null && !lines.isEmpty()))
+				{
+					this.pool.invoke(new ExtractTask(lines, records, 0, lines.size()));
+					//Positions with the side to move already lost say nothing about the weights and are left out
+					for(int i = 0; i < lines.size(); i++)
+					{
+						if(records[i * RECORD_BYTES + EvaluationWeights.FEATURE_COUNT] >= 0)
+						{
+							out.write(records, i * RECORD_BYTES, RECORD_BYTES);
+							this.positions++;
+						}//end if
+					}//end for
+					lines.clear();
+				}//end if
+			}
+			while(line != null);
+		}
+	}//end extractPositions
+
+	//The scale that makes the starting weights fit the results best, found by a golden section search on its logarithm.
+	//Keeping it fixed afterwards keeps the fitted weights in the units the search's margins were set for.
+	public double fitScale(double[] weights) throws IOException
+	{
+		double golden = (Math.sqrt(5) - 1) / 2;
+		double low = Math.log(1e-4);
+		double high = Math.log(1.0);
+		double a = high - golden * (high - low);
+		double b = low + golden * (high - low);
+		double lossA = loss(weights, Math.exp(a));
+		double lossB = loss(weights, Math.exp(b));
+		for(int i = 0; i < 30; i++)
+		{
+			if(lossA < lossB)
+			{
+				high = b;
+				b = a;
+				lossB = lossA;
+				a = high - golden * (high - low);
+				lossA = loss(weights, Math.exp(a));
+			}//end if
+			else
+			{
+				low = a;
+				a = b;
+				lossA = lossB;
+				b = low + golden * (high - low);
+				lossB = loss(weights, Math.exp(b));
+			}//end else
+		}//end for
+		return Math.exp((low + high) / 2);
+	}//end fitScale
+
+	//Adam on the full data set: every epoch is one streamed pass giving the exact gradient
+	public void fit(double[] weights, double scale, int epochs, double rate) throws IOException
+	{
+		double beta1 = 0.9, beta2 = 0.999;
+		double[] moment = new double[weights.length];
+		double[] velocity = new double[weights.length];
+		for(int epoch = 1; epoch <= epochs; epoch++)
+		{
+			double[] sums = pass(weights, scale);
+			for(int i = 0; i < weights.length; i++)
+			{
+				double gradient = sums[i] / this.positions;
+				moment[i] = beta1 * moment[i] + (1 - beta1) * gradient;
+				velocity[i] = beta2 * velocity[i] + (1 - beta2) * gradient * gradient;
+				double corrected = moment[i] / (1 - Math.pow(beta1, epoch));
+				weights[i] -= rate * corrected / (Math.sqrt(velocity[i] / (1 - Math.pow(beta2, epoch))) + 1e-9);
+			}//end for
+			if(epoch % 25 == 0 || epoch == epochs)
+				System.out.printf("Epoch %d: loss %.6f%n", epoch, sums[weights.length] / this.positions);
+		}//end for
+	}//end fit
+
+	//Mean log loss of the results under the weights
+	public double loss(double[] weights, double scale) throws IOException
+	{
+		return pass(weights, scale)[weights.length] / this.positions;
+	}//end loss
+
+	//One pass over the feature file: the summed gradient of every weight, then the summed loss
+	private double[] pass(double[] weights, double scale) throws IOException
+	{
+		double[] sums = new double[weights.length + 1];
+		ByteBuffer buffer = ByteBuffer.allocate(this.chunkPositions * RECORD_BYTES);
+		try(FileChannel channel = FileChannel.open(this.features, StandardOpenOption.READ)) {
+			while(true)
+			{
+				buffer.clear();
+				while(buffer.hasRemaining() && channel.read(buffer) > 0);
+				int count = buffer.position() / RECORD_BYTES;
+				if(count == 0)
+					break;
+				double[] chunk = this.pool.invoke(new GradientTask(buffer.array(), 0, count, weights, scale));
+				for(int i = 0; i < sums.length; i++)
+					sums[i] += chunk[i];
+				if(buffer.hasRemaining())
+					break;//A short read is the end of the file
+			}//end while
+		}
+		return sums;
+	}//end pass
+
+	public void close() throws IOException
+	{
+		this.pool.shutdown();
+		if(this.features != null)
+			Files.deleteIfExists(this.features);
+	}//end close
+
+	private static double[] toDoubles(EvaluationWeights weights)
+	{
+		int[] values = weights.toArray();
+		double[] result = new double[values.length];
+		for(int i = 0; i < values.length; i++)
+			result[i] = values[i];
+		return result;
+	}//end toDoubles
+
+	private static EvaluationWeights round(double[] weights)
+	{
+		int[] values = new int[weights.length];
+		for(int i = 0; i < weights.length; i++)
+			values[i] = (int)Math.round(weights[i]);
+		return new EvaluationWeights(values);
+	}//end round
+
+	//Parses lines[from, to) into their records. A position whose side to move has no moves gets a label of -1.
+	private static class ExtractTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		private final List<String> lines;
+		private final byte[] records;
+		private final int from;
+		private final int to;
+
+		private ExtractTask(List<String> lines, byte[] records, int from, int to)
+		{
+			this.lines = lines;
+			this.records = records;
+			this.from = from;
+			this.to = to;
+		}//end Constructor
+
+		protected void compute()
+		{
+			if(this.to - this.from > SPLIT / 4)
+			{
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new ExtractTask(this.lines, this.records, this.from, middle),
+						new ExtractTask(this.lines, this.records, middle, this.to));
+				return;
+			}//end if
+			int[] features = new int[EvaluationWeights.FEATURE_COUNT];
+			for(int i = this.from; i < this.to; i++)
+			{
+				String[] words = this.lines.get(i).trim().split("\\s+");
+				if(words.length < 2 || (!words[1].equals("X") && !words[1].equals("O")))
+					throw new IllegalArgumentException("Expected <position> <winner>, got " + this.lines.get(i));
+				Board board = Board.fromPositionString(words[0]);
+				char side = board.getSideToMove();
+				Adversarial.evaluationFeatures(side, board, features);
+				int offset = i * RECORD_BYTES;
+				for(int f = 0; f < features.length; f++)
+					this.records[offset + f] = (byte)features[f];//Every feature is at most 4 * 63 moves
+				this.records[offset + features.length] = (byte)(features[0] == 0 ? -1 : words[1].charAt(0) == side ? 1 : 0);
+			}//end for
+		}//end compute
+	}//end ExtractTask
+
+	//Gradient and loss over the records [from, to) of one chunk
+	private static class GradientTask extends RecursiveTask<double[]>
+	{
+		private static final long serialVersionUID = 1L;
+		private final byte[] records;
+		private final int from;
+		private final int to;
+		private final double[] weights;
+		private final double scale;
+
+		private GradientTask(byte[] records, int from, int to, double[] weights, double scale)
+		{
+			this.records = records;
+			this.from = from;
+			this.to = to;
+			this.weights = weights;
+			this.scale = scale;
+		}//end Constructor
+
+		protected double[] compute()
+		{
+			if(this.to - this.from > SPLIT)
+			{
+				int middle = (this.from + this.to) >>> 1;
+				GradientTask left = new GradientTask(this.records, this.from, middle, this.weights, this.scale);
+				left.fork();
+				double[] sums = new GradientTask(this.records, middle, this.to, this.weights, this.scale).compute();
+				double[] leftSums = left.join();
+				for(int i = 0; i < sums.length; i++)
+					sums[i] += leftSums[i];
+				return sums;
+			}//end if
+			int count = this.weights.length;
+			double[] sums = new double[count + 1];
+			for(int i = this.from; i < this.to; i++)
+			{
+				int offset = i * RECORD_BYTES;
+				double evaluation = 0;
+				for(int f = 0; f < count; f++)
+					evaluation += this.weights[f] * (this.records[offset + f] & 0xFF);
+				double won = this.records[offset + count];
+				double p = 1 / (1 + Math.exp(-this.scale * evaluation));
+				double error = p - won;
+				for(int f = 0; f < count; f++)
+					sums[f] += error * this.scale * (this.records[offset + f] & 0xFF);
+				p = Math.min(Math.max(p, 1e-12), 1 - 1e-12);
+				sums[count] -= won * Math.log(p) + (1 - won) * Math.log(1 - p);
+			}//end for
+			return sums;
+		}//end compute
+	}//end GradientTask
+}//end WeightTuner